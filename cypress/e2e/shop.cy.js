@@ -19,6 +19,23 @@ describe("BabyShop", () => {
     cy.get('[data-cy="cart-count"]').should("not.contain", "0");
   });
 
+  it("fills the visitor's cart count into the shared catalog nav", () => {
+    cy.intercept("GET", "/nav").as("nav");
+    cy.visit("/products");
+    cy.wait("@nav").its("response.body.cartItemCount").should("eq", 0);
+    cy.get('[data-cy="cart-count"]').should("have.text", "0");
+
+    cy.get('[data-cy="product-card"]').first().within(() => {
+      cy.get('[data-cy="add-to-cart"]').click();
+    });
+    cy.url().should("include", "/cart");
+
+    cy.visit("/products");
+    cy.wait("@nav").its("response.headers.cache-control").should("eq", "no-store");
+    cy.get('[data-cy="cart-count"]').should("have.text", "1");
+    cy.get('[data-cy="nav-login"]').should("exist");
+  });
+
   it("searches for a product and opens product detail", () => {
     cy.visit("/products");
 
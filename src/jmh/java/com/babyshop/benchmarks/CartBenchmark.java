@@ -0,0 +1,79 @@
+package com.babyshop.benchmarks;
+
+import com.babyshop.cart.Cart;
+import com.babyshop.catalog.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cart work done per request: every page renders the nav bar's item count, the cart page walks the
+ * items and subtotal, and adding to the cart changes one line. Run with {@code -prof gc} to see the
+ * allocation per operation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CartBenchmark {
+
+    @Param({"23", "1000", "10000"})
+    int catalogSize;
+
+    @Param({"1", "10", "50"})
+    int lines;
+
+    private final Map<Long, Product> catalog = new HashMap<>();
+    private final Map<Long, Integer> stored = new LinkedHashMap<>();
+    private Product added;
+
+    @Setup
+    public void prepare() {
+        List<Product> products = CatalogFixture.products(catalogSize);
+        products.forEach(product -> catalog.put(product.getId(), product));
+        Random random = new Random(42);
+        while (stored.size() < Math.min(lines, catalogSize)) {
+            stored.put(products.get(random.nextInt(products.size())).getId(), 1 + random.nextInt(3));
+        }
+        added = products.get(random.nextInt(products.size()));
+    }
+
+    @Benchmark
+    public int pageViewItemCount() {
+        return cart().getItemCount();
+    }
+
+    @Benchmark
+    public void cartPage(Blackhole blackhole) {
+        Cart cart = cart();
+        cart.getItems().forEach(item -> blackhole.consume(item.getLineTotal()));
+        blackhole.consume(cart.getSubtotal());
+        blackhole.consume(cart.getItemCount());
+    }
+
+    @Benchmark
+    public BigDecimal addThenSubtotal() {
+        Cart cart = cart();
+        cart.getItems();
+        cart.add(added, 1);
+        return cart.getSubtotal();
+    }
+
+    private Cart cart() {
+        return new Cart(stored, catalog::get, quantities -> {
+        });
+    }
+}
@@ -0,0 +1,66 @@
+package com.babyshop.benchmarks;
+
+import com.babyshop.catalog.Product;
+import com.babyshop.catalog.ProductRepository;
+import com.babyshop.catalog.ProductService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CatalogBenchmark {
+
+    @Param({"23", "1000", "10000"})
+    int catalogSize;
+
+    @Param({"true", "false"})
+    boolean cached;
+
+    @Param({"false", "true"})
+    boolean engine;
+
+    private ConfigurableApplicationContext context;
+    private ProductService productService;
+    private long[] ids;
+
+    @Setup
+    public void start() {
+        context = CatalogFixture.start(catalogSize, cached, "app.catalog.engine.enabled=" + engine);
+        productService = context.getBean(ProductService.class);
+        ids = context.getBean(ProductRepository.class).findAll().stream().mapToLong(Product::getId).toArray();
+    }
+
+    @TearDown
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Product> listProducts() {
+        return productService.listProducts(Optional.empty());
+    }
+
+    @Benchmark
+    public List<Product> listProductsWithQuery() {
+        return productService.listProducts(Optional.of("anti colic bottle"));
+    }
+
+    @Benchmark
+    public Product getById() {
+        return productService.getById(ids[ThreadLocalRandom.current().nextInt(ids.length)]);
+    }
+}
@@ -0,0 +1,158 @@
+package com.babyshop.benchmarks;
+
+import com.babyshop.BabyShopApplication;
+import com.babyshop.catalog.CatalogSnapshot;
+import com.babyshop.catalog.Money;
+import com.babyshop.catalog.Product;
+import com.babyshop.catalog.ProductCategory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Catalogs of a given size for benchmarks, grown from the rows in {@code data.sql}: row {@code n}
+ * is seed row {@code n % seeds} with an edition suffix and a slightly shifted price, so larger
+ * catalogs keep the seed data's mix of categories, prices and vocabulary.
+ * <p>
+ * As an {@link ApplicationRunner} it tops up the seeded database before {@code ApplicationReadyEvent},
+ * so the search index, facet index and inventory are built over the full catalog. Its {@code main}
+ * writes a catalog of the same shape as a {@link CatalogSnapshot} for {@code app.catalog.snapshot.import}.
+ */
+public class CatalogFixture implements ApplicationRunner {
+    static final int STOCK = 1_000_000_000;
+
+    private static final Pattern ROW = Pattern.compile(
+            "^\\('((?:[^']|'')*)', '((?:[^']|'')*)', '(\\w+)', ([0-9.]+), '((?:[^']|'')*)', (?:true|false), \\d+\\)[,;]$");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int catalogSize;
+
+    public CatalogFixture(JdbcTemplate jdbcTemplate, @Value("${bench.catalog-size}") int catalogSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.catalogSize = catalogSize;
+    }
+
+    static ConfigurableApplicationContext start(int catalogSize, boolean cached, String... extraProperties) {
+        List<String> properties = new ArrayList<>(List.of(
+                "bench.catalog-size=" + catalogSize,
+                "server.port=0",
+                "spring.main.banner-mode=off",
+                "logging.level.root=warn",
+                "spring.datasource.url=jdbc:h2:mem:bench-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1;MODE=PostgreSQL"));
+        if (!cached) {
+            properties.add("app.catalog.cache.products-spec=maximumSize=0");
+            properties.add("app.catalog.cache.listings-spec=maximumSize=0");
+        }
+        properties.addAll(List.of(extraProperties));
+        return new SpringApplicationBuilder(BabyShopApplication.class, CatalogFixture.class)
+                .properties(properties.toArray(String[]::new))
+                .run();
+    }
+
+    /**
+     * {@code CatalogFixture <catalogSize> <file>}
+     */
+    public static void main(String[] args) throws IOException {
+        int catalogSize = Integer.parseInt(args[0]);
+        Path file = Path.of(args[1]);
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file));
+             CatalogSnapshot.Writer writer = new CatalogSnapshot.Writer(out)) {
+            for (int n = 0; n < catalogSize; n++) {
+                Row row = row(n);
+                writer.add(new CatalogSnapshot.Row(n + 1, row.name(), row.description(), row.category(),
+                        Money.toCents(row.price()), row.imageUrl(), STOCK));
+            }
+        }
+        System.out.printf("Wrote %d products to %s (%d bytes)%n", catalogSize, file, Files.size(file));
+    }
+
+    static List<Product> products(int catalogSize) {
+        List<Product> products = new ArrayList<>(catalogSize);
+        for (int n = 0; n < catalogSize; n++) {
+            Product product = row(n).toProduct();
+            ReflectionTestUtils.setField(product, "id", (long) n + 1);
+            products.add(product);
+        }
+        return products;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        int seeded = Seeds.ROWS.size();
+        List<Object[]> rows = new ArrayList<>();
+        for (int n = seeded; n < catalogSize; n++) {
+            Row row = row(n);
+            rows.add(new Object[]{row.name(), row.description(), row.category().name(), row.price(), row.imageUrl(), STOCK});
+        }
+        jdbcTemplate.batchUpdate("""
+                insert into products (name, description, category, price, image_url, in_stock, stock_quantity)
+                values (?, ?, ?, ?, ?, true, ?)
+                """, rows);
+        jdbcTemplate.update("update products set stock_quantity = ?, in_stock = true", STOCK);
+    }
+
+    private static Row row(int n) {
+        List<Row> seeds = Seeds.ROWS;
+        Row seed = seeds.get(n % seeds.size());
+        int edition = n / seeds.size();
+        if (edition == 0) {
+            return seed;
+        }
+        return new Row(seed.name() + " Edition " + edition, seed.description(), seed.category(),
+                seed.price().add(BigDecimal.valueOf(edition % 100, 2)), seed.imageUrl());
+    }
+
+    private record Row(String name, String description, ProductCategory category, BigDecimal price, String imageUrl) {
+        Product toProduct() {
+            return new Product(name, description, category, price, imageUrl, STOCK);
+        }
+    }
+
+    private static final class Seeds {
+        private static final List<Row> ROWS = parse();
+
+        private static List<Row> parse() {
+            String sql;
+            try {
+                sql = new ClassPathResource("data.sql").getContentAsString(StandardCharsets.UTF_8);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            List<Row> rows = new ArrayList<>();
+            for (String line : sql.split("\\R")) {
+                Matcher m = ROW.matcher(line.trim());
+                if (m.matches()) {
+                    rows.add(new Row(unquote(m.group(1)), unquote(m.group(2)), ProductCategory.valueOf(m.group(3)),
+                            new BigDecimal(m.group(4)), unquote(m.group(5))));
+                }
+            }
+            return List.copyOf(rows);
+        }
+
+        private static String unquote(String value) {
+            return value.replace("''", "'");
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.babyshop.benchmarks;
+
+import com.babyshop.cart.Cart;
+import com.babyshop.catalog.ProductRepository;
+import com.babyshop.catalog.ProductService;
+import com.babyshop.order.CheckoutForm;
+import com.babyshop.order.CustomerOrder;
+import com.babyshop.order.OrderService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code OrderService.placeOrder} for a three-line cart, persisted to the embedded H2 database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class OrderBenchmark {
+
+    @Param({"23", "1000", "10000"})
+    int catalogSize;
+
+    private ConfigurableApplicationContext context;
+    private OrderService orderService;
+    private ProductService productService;
+    private final Map<Long, Integer> stored = new LinkedHashMap<>();
+    private final CheckoutForm form = new CheckoutForm();
+
+    @Setup
+    public void start() {
+        context = CatalogFixture.start(catalogSize, true);
+        orderService = context.getBean(OrderService.class);
+        productService = context.getBean(ProductService.class);
+        long[] ids = context.getBean(ProductRepository.class).findAll().stream().mapToLong(p -> p.getId()).toArray();
+        Random random = new Random(42);
+        while (stored.size() < 3) {
+            stored.put(ids[random.nextInt(ids.length)], 1 + random.nextInt(2));
+        }
+        form.setFullName("Alex Parent");
+        form.setEmail("alex@example.com");
+        form.setAddress("123 Baby St");
+        form.setCity("San Jose");
+        form.setPostalCode("95112");
+    }
+
+    @TearDown
+    public void stop() {
+        context.close();
+    }
+
+    @Benchmark
+    public CustomerOrder placeOrder() {
+        Cart cart = new Cart(stored, productService::getById, quantities -> {
+        });
+        return orderService.placeOrder(form, cart, null);
+    }
+}
@@ -0,0 +1,211 @@
+package com.babyshop.assets;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UriUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Serves the assets in {@link StaticAssets} ahead of Spring MVC. Picks the gzip copy when the client
+ * accepts it, answers {@code If-None-Match}/{@code If-Modified-Since} with 304, and serves single
+ * byte ranges. Large files are handed to Tomcat's sendfile when the connector supports it and
+ * otherwise copied with {@link FileChannel#transferTo}; small ones are written from memory.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class StaticAssetFilter extends OncePerRequestFilter {
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final StaticAssets assets;
+    private final long sendfileMin;
+    private final String cacheControl;
+    private final String immutableCacheControl;
+    private final long lastModified = System.currentTimeMillis();
+
+    public StaticAssetFilter(StaticAssets assets,
+                             @Value("${app.assets.sendfile-min:48KB}") DataSize sendfileMin,
+                             @Value("${app.assets.max-age:1h}") Duration maxAge) {
+        this.assets = assets;
+        this.sendfileMin = sendfileMin.toBytes();
+        this.cacheControl = CacheControl.maxAge(maxAge).cachePublic().getHeaderValue();
+        this.immutableCacheControl = CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable().getHeaderValue();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String method = request.getMethod();
+        StaticAssets.Asset asset = "GET".equals(method) || "HEAD".equals(method)
+                ? assets.get(UriUtils.decode(request.getRequestURI(), StandardCharsets.UTF_8))
+                : null;
+        if (asset == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        String range = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange != null && !ifRange.equals(asset.etag())) {
+            range = null;
+        }
+        boolean gzip = range == null && asset.gzip() != null
+                && acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        StaticAssets.Encoded encoded = gzip ? asset.gzip() : asset.identity();
+        String etag = gzip ? asset.etag().substring(0, asset.etag().length() - 1) + "-gz\"" : asset.etag();
+
+        response.setContentType(asset.mediaType().toString());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, asset.immutable() ? immutableCacheControl : cacheControl);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (asset.gzip() != null) {
+            response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+        if (new ServletWebRequest(request, response).checkNotModified(etag, lastModified)) {
+            return;
+        }
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+
+        long length = encoded.length();
+        long start = 0;
+        long end = length;
+        if (range != null) {
+            long[] bounds = parseRange(range, length);
+            if (bounds == null) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            if (bounds.length == 2) {
+                start = bounds[0];
+                end = bounds[1];
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + (end - 1) + "/" + length);
+            }
+        }
+        response.setContentLengthLong(end - start);
+        if ("HEAD".equals(method)) {
+            return;
+        }
+        write(request, response, encoded, start, end);
+    }
+
+    private void write(HttpServletRequest request, HttpServletResponse response, StaticAssets.Encoded encoded,
+                       long start, long end) throws IOException {
+        if (encoded.bytes() != null) {
+            response.getOutputStream().write(encoded.bytes(), (int) start, (int) (end - start));
+            return;
+        }
+        if (end - start >= sendfileMin && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, encoded.file().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end);
+            return;
+        }
+        OutputStream out = response.getOutputStream();
+        WritableByteChannel target = Channels.newChannel(out);
+        try (FileChannel channel = FileChannel.open(encoded.file(), StandardOpenOption.READ)) {
+            long position = start;
+            while (position < end) {
+                position += channel.transferTo(position, end - position, target);
+            }
+        }
+        out.flush();
+    }
+
+    /**
+     * Whether an {@code Accept-Encoding} header allows gzip: {@code gzip} (or {@code x-gzip}) listed with a
+     * non-zero q-value, or, when it is not listed, a {@code *} with a non-zero q-value.
+     */
+    static boolean acceptsGzip(String header) {
+        if (header == null) {
+            return false;
+        }
+        float wildcard = 0;
+        for (String element : header.split(",")) {
+            String[] parameters = element.split(";");
+            String coding = parameters[0].trim().toLowerCase(Locale.ROOT);
+            float quality = 1;
+            for (int i = 1; i < parameters.length; i++) {
+                String parameter = parameters[i].trim();
+                if (parameter.regionMatches(true, 0, "q=", 0, 2)) {
+                    quality = parseQuality(parameter.substring(2));
+                }
+            }
+            if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                return quality > 0;
+            }
+            if (coding.equals("*")) {
+                wildcard = quality;
+            }
+        }
+        return wildcard > 0;
+    }
+
+    private static float parseQuality(String value) {
+        try {
+            float quality = Float.parseFloat(value.trim());
+            return quality >= 0 && quality <= 1 ? quality : 0;
+        } catch (NumberFormatException ex) {
+            return 0;
+        }
+    }
+
+    /**
+     * Returns {@code [start, endExclusive]} for a satisfiable single range, an empty array for a
+     * header this filter does not handle (multiple ranges, other units: serve the whole body), or
+     * {@code null} when the range cannot be satisfied.
+     */
+    static long[] parseRange(String header, long length) {
+        if (!header.startsWith("bytes=") || header.indexOf(',') >= 0) {
+            return new long[0];
+        }
+        String spec = header.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return new long[0];
+        }
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            if (first.isEmpty()) {
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0 || length == 0) {
+                    return null;
+                }
+                return new long[]{Math.max(0, length - suffix), length};
+            }
+            long start = Long.parseLong(first);
+            long end = last.isEmpty() ? length : Math.min(length, Long.parseLong(last) + 1);
+            if (start >= length || end <= start) {
+                return null;
+            }
+            return new long[]{start, end};
+        } catch (NumberFormatException ex) {
+            return new long[0];
+        }
+    }
+}
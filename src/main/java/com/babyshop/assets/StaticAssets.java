@@ -0,0 +1,151 @@
+package com.babyshop.assets;
+
+import com.babyshop.images.ImageVariants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.util.UriUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * In-memory manifest of every static asset: the files under {@code static/} and the image variants
+ * from {@link ImageVariants}. Classpath assets are copied to {@code app.assets.directory} under
+ * their content hash, and compressible ones get a gzip copy next to them, so every asset is a plain
+ * file that can be sent with sendfile. Assets up to {@code app.assets.inline-max} are also kept in
+ * memory. Serving an asset ({@link StaticAssetFilter}) looks it up here and never stats the disk.
+ */
+@Component
+public class StaticAssets {
+    private static final Logger log = LoggerFactory.getLogger(StaticAssets.class);
+    private static final String SOURCES = "classpath:/static/**";
+    private static final Set<String> COMPRESSIBLE = Set.of("text/css", "text/javascript", "application/javascript",
+            "image/svg+xml", "application/json", "text/html", "text/plain");
+
+    private final Path directory;
+    private final int inlineMax;
+    private final Map<String, Asset> assets = new HashMap<>();
+
+    public StaticAssets(ImageVariants imageVariants,
+                        @Value("${app.assets.directory:data/assets}") Path directory,
+                        @Value("${app.assets.inline-max:64KB}") DataSize inlineMax) {
+        this.directory = directory;
+        this.inlineMax = (int) inlineMax.toBytes();
+        try {
+            Files.createDirectories(directory);
+            loadClasspath();
+            loadImageVariants(imageVariants.directory());
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        log.info("Static asset manifest holds {} assets", assets.size());
+    }
+
+    public Asset get(String path) {
+        return assets.get(path);
+    }
+
+    private void loadClasspath() throws IOException {
+        Resource root = new PathMatchingResourcePatternResolver().getResource("classpath:/static/");
+        String rootUrl = root.getURL().toString();
+        for (Resource resource : new PathMatchingResourcePatternResolver().getResources(SOURCES)) {
+            if (!resource.isReadable() || resource.getFilename() == null || resource.getFilename().isEmpty()) {
+                continue;
+            }
+            String url = resource.getURL().toString();
+            if (!url.startsWith(rootUrl)) {
+                continue;
+            }
+            byte[] bytes = resource.getContentAsByteArray();
+            String path = "/" + url.substring(rootUrl.length());
+            add(path, bytes, false);
+        }
+    }
+
+    private void loadImageVariants(Path variants) throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(variants, "*.jpg")) {
+            for (Path file : files) {
+                add(ImageVariants.URL_PREFIX + file.getFileName(), Files.readAllBytes(file), true);
+            }
+        }
+    }
+
+    private void add(String path, byte[] bytes, boolean immutable) throws IOException {
+        String decodedPath = UriUtils.decode(path, StandardCharsets.UTF_8);
+        MediaType mediaType = MediaTypeFactory.getMediaType(decodedPath).orElse(MediaType.APPLICATION_OCTET_STREAM);
+        String hash = hash(bytes);
+        Path file = write(hash, bytes);
+
+        Encoded gzip = null;
+        if (COMPRESSIBLE.contains(mediaType.getType() + "/" + mediaType.getSubtype())) {
+            byte[] compressed = gzip(bytes);
+            if (compressed.length < bytes.length * 9L / 10) {
+                gzip = new Encoded(write(hash + ".gz", compressed), compressed.length,
+                        compressed.length <= inlineMax ? compressed : null);
+            }
+        }
+        Encoded identity = new Encoded(file, bytes.length, bytes.length <= inlineMax ? bytes : null);
+        assets.put(decodedPath, new Asset(mediaType, "\"" + hash.substring(0, 20) + "\"", immutable, identity, gzip));
+    }
+
+    private Path write(String name, byte[] bytes) throws IOException {
+        Path file = directory.resolve(name).toAbsolutePath();
+        if (!Files.exists(file) || Files.size(file) != bytes.length) {
+            Path temp = Files.createTempFile(directory, name, ".tmp");
+            Files.write(temp, bytes);
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return file;
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 3 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            gzip.write(bytes);
+        }
+        return out.toByteArray();
+    }
+
+    private static String hash(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * One representation of an asset on disk; {@code bytes} is set when it is small enough to serve
+     * from memory.
+     */
+    public record Encoded(Path file, long length, byte[] bytes) {
+    }
+
+    public record Asset(MediaType mediaType, String etag, boolean immutable, Encoded identity, Encoded gzip) {
+    }
+}
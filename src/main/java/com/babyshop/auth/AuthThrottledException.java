@@ -0,0 +1,8 @@
+package com.babyshop.auth;
+
+public class AuthThrottledException extends IllegalStateException {
+
+    public AuthThrottledException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,188 @@
+package com.babyshop.auth;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Stream;
+
+/**
+ * Bloom filter over the normalized emails of all accounts. A negative answer means no account has
+ * that email as far as this node knows, so signup can skip the existence query; the unique column
+ * still rejects a duplicate the filter missed. Login never trusts a negative answer.
+ * <p>
+ * Accounts inserted on this node are added as they are persisted. The filter is rebuilt from the database every
+ * {@code rebuild-interval}, which resizes it as the user base grows and picks up accounts created
+ * on other nodes. Until the first build, every email is reported as possibly present.
+ */
+@Component
+public class EmailFilter {
+    private static final Logger log = LoggerFactory.getLogger(EmailFilter.class);
+
+    private final UserAccountRepository userAccountRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int expectedEmails;
+    private final double falsePositiveRate;
+    private final Duration rebuildInterval;
+    private volatile Bits bits;
+    private List<String> addedDuringRebuild;
+    private ScheduledExecutorService scheduler;
+
+    public EmailFilter(UserAccountRepository userAccountRepository,
+                       TransactionTemplate transactionTemplate,
+                       @Value("${app.auth.email-filter.enabled:true}") boolean enabled,
+                       @Value("${app.auth.email-filter.expected-emails:100000}") int expectedEmails,
+                       @Value("${app.auth.email-filter.false-positive-rate:0.01}") double falsePositiveRate,
+                       @Value("${app.auth.email-filter.rebuild-interval:5m}") Duration rebuildInterval) {
+        this.userAccountRepository = userAccountRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.expectedEmails = expectedEmails;
+        this.falsePositiveRate = falsePositiveRate;
+        this.rebuildInterval = rebuildInterval;
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "email-filter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::rebuildQuietly, rebuildInterval.toMillis(), rebuildInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        synchronized (this) {
+            addedDuringRebuild = new ArrayList<>();
+        }
+        Bits rebuilt = transactionTemplate.execute(status -> {
+            long count = userAccountRepository.count();
+            Bits fresh = new Bits(Math.max(expectedEmails, 2 * count), falsePositiveRate);
+            try (Stream<String> emails = userAccountRepository.streamAllEmailsNormalized()) {
+                emails.forEach(fresh::put);
+            }
+            return fresh;
+        });
+        synchronized (this) {
+            addedDuringRebuild.forEach(rebuilt::put);
+            addedDuringRebuild = null;
+            bits = rebuilt;
+        }
+    }
+
+    public boolean mightContain(String emailNormalized) {
+        Bits current = bits;
+        return current == null || current.mightContain(emailNormalized);
+    }
+
+    @EventListener
+    public void onAccountCreated(UserAccountCreatedEvent event) {
+        add(event.emailNormalized());
+    }
+
+    synchronized void add(String emailNormalized) {
+        if (bits != null) {
+            bits.put(emailNormalized);
+        }
+        if (addedDuringRebuild != null) {
+            addedDuringRebuild.add(emailNormalized);
+        }
+    }
+
+    private void rebuildQuietly() {
+        try {
+            rebuild();
+        } catch (RuntimeException ex) {
+            log.warn("Could not rebuild the email filter", ex);
+            synchronized (this) {
+                addedDuringRebuild = null;
+            }
+        }
+    }
+
+    static final class Bits {
+        private final AtomicLongArray words;
+        private final long size;
+        private final int hashes;
+
+        Bits(long expected, double falsePositiveRate) {
+            long bitCount = (long) Math.ceil(-expected * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            this.words = new AtomicLongArray((int) Math.max(1, (bitCount + 63) >>> 6));
+            this.size = (long) words.length() << 6;
+            this.hashes = Math.max(1, (int) Math.round((double) size / expected * Math.log(2)));
+        }
+
+        void put(String value) {
+            long h1 = hash(value);
+            long h2 = mix(h1 ^ 0x9E3779B97F4A7C15L) | 1;
+            for (int i = 0; i < hashes; i++) {
+                long bit = Long.remainderUnsigned(h1 + i * h2, size);
+                int word = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long current = words.get(word);
+                while ((current & mask) == 0 && !words.compareAndSet(word, current, current | mask)) {
+                    current = words.get(word);
+                }
+            }
+        }
+
+        boolean mightContain(String value) {
+            long h1 = hash(value);
+            long h2 = mix(h1 ^ 0x9E3779B97F4A7C15L) | 1;
+            for (int i = 0; i < hashes; i++) {
+                long bit = Long.remainderUnsigned(h1 + i * h2, size);
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static long hash(String value) {
+            long h = 0xCBF29CE484222325L;
+            for (int i = 0; i < value.length(); i++) {
+                h = (h ^ value.charAt(i)) * 0x100000001B3L;
+            }
+            return mix(h);
+        }
+
+        private static long mix(long h) {
+            h ^= h >>> 33;
+            h *= 0xFF51AFD7ED558CCDL;
+            h ^= h >>> 33;
+            h *= 0xC4CEB9FE1A85EC53L;
+            h ^= h >>> 33;
+            return h;
+        }
+    }
+}
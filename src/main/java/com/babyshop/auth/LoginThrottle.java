@@ -0,0 +1,88 @@
+package com.babyshop.auth;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Token buckets for login attempts, one per email and one per client address. Each attempt takes a
+ * token from both; buckets refill continuously at their per-minute rate up to their burst size.
+ */
+@Component
+public class LoginThrottle {
+    private static final int SWEEP_EVERY = 4096;
+
+    private final int emailBurst;
+    private final double emailPerNano;
+    private final int addressBurst;
+    private final double addressPerNano;
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final AtomicInteger attempts = new AtomicInteger();
+
+    public LoginThrottle(@Value("${app.auth.throttle.email-burst:5}") int emailBurst,
+                         @Value("${app.auth.throttle.email-per-minute:5}") int emailPerMinute,
+                         @Value("${app.auth.throttle.address-burst:30}") int addressBurst,
+                         @Value("${app.auth.throttle.address-per-minute:30}") int addressPerMinute) {
+        this.emailBurst = emailBurst;
+        this.emailPerNano = emailPerMinute / (double) TimeUnit.MINUTES.toNanos(1);
+        this.addressBurst = addressBurst;
+        this.addressPerNano = addressPerMinute / (double) TimeUnit.MINUTES.toNanos(1);
+    }
+
+    public boolean tryAcquire(String email, String clientAddress) {
+        return tryAcquire(email, clientAddress, System.nanoTime());
+    }
+
+    boolean tryAcquire(String email, String clientAddress, long now) {
+        if (attempts.incrementAndGet() % SWEEP_EVERY == 0) {
+            buckets.values().removeIf(bucket -> bucket.isFull(now));
+        }
+        if (clientAddress != null
+                && !bucket("address:" + clientAddress, addressBurst, addressPerNano, now).tryTake(now)) {
+            return false;
+        }
+        return bucket("email:" + email.toLowerCase(Locale.ROOT), emailBurst, emailPerNano, now).tryTake(now);
+    }
+
+    private TokenBucket bucket(String key, int burst, double perNano, long now) {
+        return buckets.computeIfAbsent(key, k -> new TokenBucket(burst, perNano, now));
+    }
+
+    private static final class TokenBucket {
+        private final int burst;
+        private final double perNano;
+        private double tokens;
+        private long refilledAt;
+
+        TokenBucket(int burst, double perNano, long now) {
+            this.burst = burst;
+            this.perNano = perNano;
+            this.tokens = burst;
+            this.refilledAt = now;
+        }
+
+        synchronized boolean tryTake(long now) {
+            refill(now);
+            if (tokens < 1) {
+                return false;
+            }
+            tokens--;
+            return true;
+        }
+
+        synchronized boolean isFull(long now) {
+            refill(now);
+            return tokens >= burst;
+        }
+
+        private void refill(long now) {
+            tokens = Math.min(burst, tokens + (now - refilledAt) * perNano);
+            refilledAt = now;
+        }
+    }
+}
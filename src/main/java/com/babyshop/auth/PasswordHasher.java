@@ -0,0 +1,131 @@
+package com.babyshop.auth;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Runs BCrypt on a dedicated pool with one thread per core and a bounded queue, so a login burst
+ * queues here instead of tying up request threads. When the queue is full, or a hash is not done
+ * within {@code timeout}, callers get an {@link AuthThrottledException}.
+ */
+@Component
+public class PasswordHasher {
+    private static final String BUSY = "We're handling a lot of sign-ins right now. Please try again in a moment.";
+    private static final Pattern BCRYPT_COST = Pattern.compile("^\\$2[abxy]?\\$(\\d{2})\\$");
+
+    private final int strength;
+    private final int threads;
+    private final int queueCapacity;
+    private final Duration timeout;
+    private final BCryptPasswordEncoder encoder;
+    private ThreadPoolExecutor executor;
+    private String decoyHash;
+
+    public PasswordHasher(@Value("${app.auth.bcrypt.strength:10}") int strength,
+                          @Value("${app.auth.hashing.threads:0}") int threads,
+                          @Value("${app.auth.hashing.queue-capacity:64}") int queueCapacity,
+                          @Value("${app.auth.hashing.timeout:5s}") Duration timeout) {
+        this.strength = strength;
+        this.threads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.queueCapacity = queueCapacity;
+        this.timeout = timeout;
+        this.encoder = new BCryptPasswordEncoder(strength);
+    }
+
+    @PostConstruct
+    void start() {
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hasher-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        decoyHash = encoder.encode("decoy-password");
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    public String hash(String rawPassword) {
+        return await(submit(() -> encoder.encode(rawPassword)));
+    }
+
+    /**
+     * Hashes in the background; the future fails with {@link AuthThrottledException} if the pool is
+     * saturated.
+     */
+    public CompletableFuture<String> hashAsync(String rawPassword) {
+        try {
+            return submit(() -> encoder.encode(rawPassword));
+        } catch (AuthThrottledException ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
+    }
+
+    /**
+     * Checks a password against a stored hash. A {@code null} hash (no such account) is checked
+     * against a decoy hash so that unknown emails take as long as wrong passwords.
+     */
+    public boolean matches(String rawPassword, String passwordHash) {
+        boolean decoy = passwordHash == null;
+        String hash = decoy ? decoyHash : passwordHash;
+        boolean matches = await(submit(() -> encoder.matches(rawPassword, hash)));
+        return matches && !decoy;
+    }
+
+    /**
+     * Whether the hash was made with a different cost than the configured {@code strength}.
+     */
+    public boolean needsRehash(String passwordHash) {
+        Matcher m = BCRYPT_COST.matcher(passwordHash);
+        return m.find() && Integer.parseInt(m.group(1)) != strength;
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, executor);
+        } catch (RejectedExecutionException ex) {
+            throw new AuthThrottledException(BUSY);
+        }
+    }
+
+    private <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            // Only drops a task that is still queued. CompletableFuture cannot interrupt a hash that has
+            // started, so it runs to completion on its pool thread; the bounded queue, not this timeout,
+            // is what caps the work a burst can pile up.
+            future.cancel(false);
+            throw new AuthThrottledException(BUSY);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(ex.getCause());
+        }
+    }
+}
@@ -2,15 +2,18 @@ package com.babyshop.auth;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
 
 import java.time.Instant;
+import java.util.Locale;
 
 @Entity
 @Table(name = "users")
+@EntityListeners(UserAccountListener.class)
 public class UserAccount {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -19,6 +22,9 @@ public class UserAccount {
     @Column(nullable = false, unique = true, length = 320)
     private String email;
 
+    @Column(nullable = false, unique = true, length = 320)
+    private String emailNormalized;
+
     @Column(nullable = false, length = 500)
     private String passwordHash;
 
@@ -30,10 +36,15 @@ public class UserAccount {
 
     public UserAccount(String email, String passwordHash, Instant createdAt) {
         this.email = email;
+        this.emailNormalized = normalizeEmail(email);
         this.passwordHash = passwordHash;
         this.createdAt = createdAt;
     }
 
+    public static String normalizeEmail(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
     public Long getId() {
         return id;
     }
@@ -42,6 +53,10 @@ public class UserAccount {
         return email;
     }
 
+    public String getEmailNormalized() {
+        return emailNormalized;
+    }
+
     public String getPasswordHash() {
         return passwordHash;
     }
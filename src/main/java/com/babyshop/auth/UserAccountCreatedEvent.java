@@ -0,0 +1,4 @@
+package com.babyshop.auth;
+
+public record UserAccountCreatedEvent(String emailNormalized) {
+}
@@ -0,0 +1,21 @@
+package com.babyshop.auth;
+
+import jakarta.persistence.PostPersist;
+import org.springframework.context.ApplicationEventPublisher;
+
+/**
+ * JPA entity listener that announces new accounts, so {@link EmailFilter} learns about every insert
+ * made through this node, not only those made by signup.
+ */
+public class UserAccountListener {
+    private final ApplicationEventPublisher eventPublisher;
+
+    public UserAccountListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostPersist
+    public void onPersisted(UserAccount account) {
+        eventPublisher.publishEvent(new UserAccountCreatedEvent(account.getEmailNormalized()));
+    }
+}
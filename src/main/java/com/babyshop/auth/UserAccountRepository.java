@@ -1,11 +1,27 @@
 package com.babyshop.auth;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface UserAccountRepository extends JpaRepository<UserAccount, Long> {
-    Optional<UserAccount> findByEmailIgnoreCase(String email);
-    boolean existsByEmailIgnoreCase(String email);
-}
+    Optional<UserAccount> findByEmailNormalized(String emailNormalized);
+    boolean existsByEmailNormalized(String emailNormalized);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1024"))
+    @Query("select u.emailNormalized from UserAccount u")
+    Stream<String> streamAllEmailsNormalized();
 
+    @Transactional
+    @Modifying
+    @Query("update UserAccount u set u.passwordHash = :hash where u.id = :id and u.passwordHash = :previous")
+    int replacePasswordHash(@Param("id") long id, @Param("previous") String previous, @Param("hash") String hash);
+}
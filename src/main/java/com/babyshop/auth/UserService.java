@@ -1,38 +1,86 @@
 package com.babyshop.auth;
 
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import io.micrometer.core.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
 import java.util.Optional;
 
 @Service
 public class UserService {
+    private static final Logger log = LoggerFactory.getLogger(UserService.class);
+
     private final UserAccountRepository userAccountRepository;
-    private final PasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
+    private final PasswordHasher passwordHasher;
+    private final LoginThrottle loginThrottle;
+    private final EmailFilter emailFilter;
 
-    public UserService(UserAccountRepository userAccountRepository) {
+    public UserService(UserAccountRepository userAccountRepository,
+                       PasswordHasher passwordHasher,
+                       LoginThrottle loginThrottle,
+                       EmailFilter emailFilter) {
         this.userAccountRepository = userAccountRepository;
+        this.passwordHasher = passwordHasher;
+        this.loginThrottle = loginThrottle;
+        this.emailFilter = emailFilter;
     }
 
-    public Optional<UserAccount> authenticate(String email, String rawPassword) {
+    @Timed("babyshop.auth.authenticate")
+    public Optional<UserAccount> authenticate(String email, String rawPassword, String clientAddress) {
         if (email == null || rawPassword == null) {
             return Optional.empty();
         }
-        return userAccountRepository.findByEmailIgnoreCase(email.trim())
-                .filter(u -> passwordEncoder.matches(rawPassword, u.getPasswordHash()));
+        String trimmed = email.trim();
+        if (!loginThrottle.tryAcquire(trimmed, clientAddress)) {
+            throw new AuthThrottledException("Too many sign-in attempts. Please wait a minute and try again.");
+        }
+        String normalized = UserAccount.normalizeEmail(trimmed);
+        // Always look the account up: the email filter can lag behind accounts created on other nodes,
+        // and a login must never be refused because of it.
+        Optional<UserAccount> user = userAccountRepository.findByEmailNormalized(normalized);
+        if (!passwordHasher.matches(rawPassword, user.map(UserAccount::getPasswordHash).orElse(null))) {
+            return Optional.empty();
+        }
+        if (passwordHasher.needsRehash(user.get().getPasswordHash())) {
+            rehash(user.get(), rawPassword);
+        }
+        return user;
     }
 
-    @Transactional
+    /**
+     * Not transactional: the BCrypt hash can wait seconds for the hashing pool, so it runs before any
+     * connection is taken, and the existence check and the insert each use their own short transaction.
+     */
     public UserAccount signup(String email, String rawPassword) {
         String normalizedEmail = normalizeEmail(email);
-        if (userAccountRepository.existsByEmailIgnoreCase(normalizedEmail)) {
-            throw new IllegalArgumentException("An account with this email already exists");
+        String normalized = UserAccount.normalizeEmail(normalizedEmail);
+        if (emailFilter.mightContain(normalized) && userAccountRepository.existsByEmailNormalized(normalized)) {
+            throw duplicateEmail();
         }
-        String hash = passwordEncoder.encode(rawPassword);
-        return userAccountRepository.save(new UserAccount(normalizedEmail, hash, Instant.now()));
+        String hash = passwordHasher.hash(rawPassword);
+        try {
+            return userAccountRepository.saveAndFlush(new UserAccount(normalizedEmail, hash, Instant.now()));
+        } catch (DataIntegrityViolationException ex) {
+            // The filter can be stale for accounts created on another node; the unique column is the backstop.
+            throw duplicateEmail();
+        }
+    }
+
+    private static IllegalArgumentException duplicateEmail() {
+        return new IllegalArgumentException("An account with this email already exists");
+    }
+
+    private void rehash(UserAccount user, String rawPassword) {
+        String previous = user.getPasswordHash();
+        passwordHasher.hashAsync(rawPassword)
+                .thenAccept(hash -> userAccountRepository.replacePasswordHash(user.getId(), previous, hash))
+                .exceptionally(ex -> {
+                    log.debug("Could not rehash the password of user {}; will retry on next login", user.getId(), ex);
+                    return null;
+                });
     }
 
     private static String normalizeEmail(String email) {
@@ -46,4 +94,3 @@ public class UserService {
         return trimmed;
     }
 }
-
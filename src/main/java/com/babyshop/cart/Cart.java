@@ -1,56 +1,145 @@
 package com.babyshop.cart;
 
+import com.babyshop.catalog.Money;
 import com.babyshop.catalog.Product;
 
 import java.math.BigDecimal;
 import java.util.Collection;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.LongFunction;
 
+/**
+ * The shopper's cart for the current request. Only {@code productId -> quantity} is kept between
+ * requests; products are looked up again the first time the items are needed, and every change is
+ * handed to {@code onChange} to be stored.
+ * <p>
+ * The item count and, once items are loaded, the subtotal in cents are kept up to date on every
+ * change, so reading them neither walks the lines nor allocates.
+ */
 public class Cart {
-    private final Map<Long, CartItem> itemsByProductId = new LinkedHashMap<>();
+    private final Map<Long, Integer> quantities;
+    private final LongFunction<Product> productLookup;
+    private final Consumer<Map<Long, Integer>> onChange;
+    private Map<Long, CartItem> items;
+    private int itemCount;
+    private long subtotalCents;
+
+    public Cart(Map<Long, Integer> quantities, LongFunction<Product> productLookup, Consumer<Map<Long, Integer>> onChange) {
+        this.quantities = new LinkedHashMap<>(quantities);
+        this.productLookup = productLookup;
+        this.onChange = onChange;
+        for (int quantity : this.quantities.values()) {
+            itemCount += quantity;
+        }
+    }
 
     public void add(Product product, int quantity) {
         int qty = Math.max(1, quantity);
-        CartItem existing = itemsByProductId.get(product.getId());
-        if (existing == null) {
-            itemsByProductId.put(product.getId(), new CartItem(product, qty));
-        } else {
+        quantities.merge(product.getId(), qty, Integer::sum);
+        itemCount += qty;
+        if (items != null) {
+            CartItem existing = items.get(product.getId());
+            if (existing == null) {
+                existing = new CartItem(product, 0);
+                items.put(product.getId(), existing);
+            }
             existing.setQuantity(existing.getQuantity() + qty);
+            subtotalCents += existing.getUnitPriceCents() * qty;
         }
+        onChange.accept(quantities);
     }
 
     public void setQuantity(long productId, int quantity) {
         if (quantity <= 0) {
-            itemsByProductId.remove(productId);
+            remove(productId);
+            return;
+        }
+        Integer previous = quantities.replace(productId, quantity);
+        if (previous == null) {
             return;
         }
-        CartItem item = itemsByProductId.get(productId);
-        if (item != null) {
+        int delta = quantity - previous;
+        itemCount += delta;
+        if (items != null) {
+            CartItem item = items.get(productId);
             item.setQuantity(quantity);
+            subtotalCents += item.getUnitPriceCents() * delta;
         }
+        onChange.accept(quantities);
     }
 
     public void remove(long productId) {
-        itemsByProductId.remove(productId);
+        Integer previous = quantities.remove(productId);
+        if (previous == null) {
+            return;
+        }
+        itemCount -= previous;
+        if (items != null) {
+            subtotalCents -= items.remove(productId).getLineTotalCents();
+        }
+        onChange.accept(quantities);
     }
 
     public void clear() {
-        itemsByProductId.clear();
+        if (!quantities.isEmpty()) {
+            quantities.clear();
+            itemCount = 0;
+            subtotalCents = 0;
+            if (items != null) {
+                items.clear();
+            }
+            onChange.accept(quantities);
+        }
+    }
+
+    public int getQuantity(long productId) {
+        return quantities.getOrDefault(productId, 0);
     }
 
     public Collection<CartItem> getItems() {
-        return itemsByProductId.values();
+        return loadItems().values();
     }
 
     public int getItemCount() {
-        return itemsByProductId.values().stream().mapToInt(CartItem::getQuantity).sum();
+        return itemCount;
+    }
+
+    public long getSubtotalCents() {
+        loadItems();
+        return subtotalCents;
     }
 
     public BigDecimal getSubtotal() {
-        return itemsByProductId.values().stream()
-                .map(CartItem::getLineTotal)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        return Money.fromCents(getSubtotalCents());
     }
-}
 
+    private Map<Long, CartItem> loadItems() {
+        if (items != null) {
+            return items;
+        }
+        Map<Long, CartItem> loaded = new LinkedHashMap<>();
+        long cents = 0;
+        for (Map.Entry<Long, Integer> line : quantities.entrySet()) {
+            try {
+                CartItem item = new CartItem(productLookup.apply(line.getKey()), line.getValue());
+                loaded.put(line.getKey(), item);
+                cents += item.getLineTotalCents();
+            } catch (IllegalArgumentException ex) {
+                // the product has left the catalog; the line is dropped below
+            }
+        }
+        items = loaded;
+        subtotalCents = cents;
+        if (loaded.size() < quantities.size()) {
+            quantities.keySet().removeIf(productId -> !loaded.containsKey(productId));
+            itemCount = 0;
+            for (int quantity : quantities.values()) {
+                itemCount += quantity;
+            }
+            onChange.accept(quantities);
+        }
+        return items;
+    }
+}
@@ -0,0 +1,66 @@
+package com.babyshop.cart;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Binary form of a cart: a format version, the line count, then one {@code productId, quantity}
+ * pair per line, all as unsigned LEB128 varints. A typical cart line takes two or three bytes.
+ */
+final class CartCodec {
+    private static final int VERSION = 1;
+
+    private CartCodec() {
+    }
+
+    static byte[] encode(Map<Long, Integer> quantities) {
+        ByteBuffer buffer = ByteBuffer.allocate(1 + 5 + quantities.size() * 15);
+        buffer.put((byte) VERSION);
+        writeVarLong(buffer, quantities.size());
+        quantities.forEach((productId, quantity) -> {
+            writeVarLong(buffer, productId);
+            writeVarLong(buffer, quantity);
+        });
+        byte[] bytes = new byte[buffer.position()];
+        buffer.flip().get(bytes);
+        return bytes;
+    }
+
+    static Map<Long, Integer> decode(ByteBuffer buffer) {
+        try {
+            if (buffer.get() != VERSION) {
+                throw new IllegalArgumentException("Unknown cart format");
+            }
+            int lines = (int) readVarLong(buffer);
+            Map<Long, Integer> quantities = new LinkedHashMap<>(Math.max(16, lines * 2));
+            for (int i = 0; i < lines; i++) {
+                quantities.put(readVarLong(buffer), (int) readVarLong(buffer));
+            }
+            return quantities;
+        } catch (BufferUnderflowException ex) {
+            throw new IllegalArgumentException("Truncated cart record", ex);
+        }
+    }
+
+    private static void writeVarLong(ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private static long readVarLong(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+}
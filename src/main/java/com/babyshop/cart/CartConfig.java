@@ -1,16 +1,37 @@
 package com.babyshop.cart;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.web.context.annotation.SessionScope;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.context.annotation.RequestScope;
+
+import java.nio.file.Path;
+import java.time.Duration;
 
 @Configuration
 public class CartConfig {
 
     @Bean
-    @SessionScope
-    public Cart cart() {
-        return new Cart();
+    @RequestScope
+    public Cart cart(CartResolver cartResolver, HttpServletRequest request, HttpServletResponse response) {
+        return cartResolver.resolve(request, response);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.cart.store", havingValue = "off-heap", matchIfMissing = true)
+    public CartStore offHeapCartStore(@Value("${app.cart.max-idle:7d}") Duration maxIdle,
+                                      @Value("${app.cart.off-heap.slab-size:1MB}") DataSize slabSize) {
+        return new OffHeapCartStore(maxIdle, Math.toIntExact(slabSize.toBytes()));
     }
-}
 
+    @Bean
+    @ConditionalOnProperty(name = "app.cart.store", havingValue = "file")
+    public CartStore fileCartStore(@Value("${app.cart.file.directory:data/carts}") Path directory,
+                                   @Value("${app.cart.max-idle:7d}") Duration maxIdle) {
+        return new FileCartStore(directory, maxIdle);
+    }
+}
@@ -1,15 +1,18 @@
 package com.babyshop.cart;
 
+import com.babyshop.catalog.Money;
 import com.babyshop.catalog.Product;
 
 import java.math.BigDecimal;
 
 public class CartItem {
     private final Product product;
+    private final long unitPriceCents;
     private int quantity;
 
     public CartItem(Product product, int quantity) {
         this.product = product;
+        this.unitPriceCents = Money.toCents(product.getPrice());
         this.quantity = quantity;
     }
 
@@ -25,8 +28,15 @@ public class CartItem {
         this.quantity = quantity;
     }
 
+    public long getUnitPriceCents() {
+        return unitPriceCents;
+    }
+
+    public long getLineTotalCents() {
+        return unitPriceCents * quantity;
+    }
+
     public BigDecimal getLineTotal() {
-        return product.getPrice().multiply(BigDecimal.valueOf(quantity));
+        return Money.fromCents(getLineTotalCents());
     }
 }
-
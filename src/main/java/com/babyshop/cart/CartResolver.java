@@ -0,0 +1,134 @@
+package com.babyshop.cart;
+
+import com.babyshop.catalog.ProductService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Binds a request to its stored cart through the {@value #COOKIE} cookie. The cookie is only
+ * issued when a cart is first written, so browsing never creates carts.
+ */
+@Component
+public class CartResolver {
+    public static final String COOKIE = "BABYSHOP_CART";
+
+    private static final Logger log = LoggerFactory.getLogger(CartResolver.class);
+    private static final Pattern CART_ID = Pattern.compile("[A-Za-z0-9_-]{22}");
+
+    private final CartStore cartStore;
+    private final ProductService productService;
+    private final Duration maxIdle;
+    private final SecureRandom random = new SecureRandom();
+    private ScheduledExecutorService evictor;
+
+    public CartResolver(CartStore cartStore,
+                        ProductService productService,
+                        @Value("${app.cart.max-idle:7d}") Duration maxIdle) {
+        this.cartStore = cartStore;
+        this.productService = productService;
+        this.maxIdle = maxIdle;
+    }
+
+    @PostConstruct
+    void start() {
+        evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cart-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        evictor.scheduleWithFixedDelay(this::evictIdle, 1, 1, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    void stop() {
+        evictor.shutdownNow();
+    }
+
+    public Cart resolve(HttpServletRequest request, HttpServletResponse response) {
+        String cartId = cartId(request);
+        Map<Long, Integer> quantities = cartId == null ? new LinkedHashMap<>() : load(cartId);
+        return new Cart(quantities, productService::getById, new Binding(cartId, response)::save);
+    }
+
+    private Map<Long, Integer> load(String cartId) {
+        try {
+            return cartStore.load(cartId);
+        } catch (IllegalArgumentException ex) {
+            log.warn("Discarding unreadable cart {}", cartId, ex);
+            return new LinkedHashMap<>();
+        }
+    }
+
+    private void evictIdle() {
+        try {
+            cartStore.evictIdle();
+        } catch (RuntimeException ex) {
+            log.warn("Could not evict idle carts", ex);
+        }
+    }
+
+    private static String cartId(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return null;
+        }
+        for (Cookie cookie : cookies) {
+            if (COOKIE.equals(cookie.getName()) && CART_ID.matcher(cookie.getValue()).matches()) {
+                return cookie.getValue();
+            }
+        }
+        return null;
+    }
+
+    private String newCartId() {
+        byte[] bytes = new byte[16];
+        random.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private final class Binding {
+        private final HttpServletResponse response;
+        private String cartId;
+
+        Binding(String cartId, HttpServletResponse response) {
+            this.cartId = cartId;
+            this.response = response;
+        }
+
+        void save(Map<Long, Integer> quantities) {
+            if (cartId == null) {
+                if (quantities.isEmpty()) {
+                    return;
+                }
+                cartId = newCartId();
+            }
+            cartStore.save(cartId, quantities);
+            ResponseCookie cookie = ResponseCookie.from(COOKIE, cartId)
+                    .path("/")
+                    .httpOnly(true)
+                    .sameSite("Lax")
+                    .maxAge(maxIdle)
+                    .build();
+            response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.babyshop.cart;
+
+import java.util.Map;
+
+/**
+ * Where carts live between requests, keyed by the id in the cart cookie. Carts are stored as
+ * {@code productId -> quantity} only; product details are looked up again when a cart is shown.
+ */
+public interface CartStore {
+
+    /**
+     * Returns the cart's lines in the order they were added, or an empty map for an unknown cart.
+     */
+    Map<Long, Integer> load(String cartId);
+
+    /**
+     * Replaces the cart's lines; saving an empty cart deletes it.
+     */
+    void save(String cartId, Map<Long, Integer> quantities);
+
+    /**
+     * Drops carts that have not been written for longer than {@code maxIdle}.
+     */
+    void evictIdle();
+}
@@ -0,0 +1,85 @@
+package com.babyshop.cart;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * One small file per cart. Writes go to a temporary file that is atomically moved into place, so a
+ * reader never sees a half-written cart; pointing several nodes at a shared directory lets them
+ * serve the same carts without sticky sessions.
+ */
+public class FileCartStore implements CartStore {
+    private static final String SUFFIX = ".cart";
+
+    private final Path directory;
+    private final Duration maxIdle;
+
+    public FileCartStore(Path directory, Duration maxIdle) {
+        this.directory = directory;
+        this.maxIdle = maxIdle;
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @Override
+    public Map<Long, Integer> load(String cartId) {
+        try {
+            return CartCodec.decode(ByteBuffer.wrap(Files.readAllBytes(file(cartId))));
+        } catch (NoSuchFileException ex) {
+            return new LinkedHashMap<>();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @Override
+    public void save(String cartId, Map<Long, Integer> quantities) {
+        try {
+            if (quantities.isEmpty()) {
+                Files.deleteIfExists(file(cartId));
+                return;
+            }
+            Path temp = Files.createTempFile(directory, cartId, ".tmp");
+            try {
+                Files.write(temp, CartCodec.encode(quantities));
+                Files.move(temp, file(cartId), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @Override
+    public void evictIdle() {
+        FileTime cutoff = FileTime.from(Instant.now().minus(maxIdle));
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+            for (Path file : files) {
+                if (Files.getLastModifiedTime(file).compareTo(cutoff) < 0) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private Path file(String cartId) {
+        return directory.resolve(cartId + SUFFIX);
+    }
+}
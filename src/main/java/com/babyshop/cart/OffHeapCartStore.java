@@ -0,0 +1,165 @@
+package com.babyshop.cart;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps encoded carts outside the Java heap and out of the servlet session, in chunks carved from a
+ * few large direct slabs. Chunks are powers of two from 64 bytes; a freed chunk goes on the free list
+ * of its size and is handed to the next cart that needs that size. On the heap a cart costs one map
+ * entry holding a packed {@code (size class, slab, offset)} handle, and the chunk itself starts with
+ * the encoded length and the time of the last save.
+ * <p>
+ * Slabs are never released, so the off-heap footprint follows the peak number of stored carts.
+ */
+public class OffHeapCartStore implements CartStore {
+    private static final int MIN_CHUNK = 64;
+    private static final int HEADER = Integer.BYTES + Long.BYTES;
+    private static final int STRIPES = 64;
+
+    private final Map<String, Long> carts = new ConcurrentHashMap<>();
+    private final Object[] locks = new Object[STRIPES];
+    private final long maxIdleNanos;
+    private final int slabBytes;
+    private final long[][] freeLists;
+    private final int[] freeCounts;
+    private volatile ByteBuffer[] slabs = new ByteBuffer[0];
+    private int top;
+
+    public OffHeapCartStore(Duration maxIdle) {
+        this(maxIdle, 1 << 20);
+    }
+
+    public OffHeapCartStore(Duration maxIdle, int slabBytes) {
+        if (slabBytes < MIN_CHUNK) {
+            throw new IllegalArgumentException("Slab size must be at least " + MIN_CHUNK + " bytes");
+        }
+        this.maxIdleNanos = maxIdle.toNanos();
+        this.slabBytes = slabBytes;
+        int sizeClasses = 32 - Integer.numberOfLeadingZeros(slabBytes / MIN_CHUNK);
+        this.freeLists = new long[sizeClasses][16];
+        this.freeCounts = new int[sizeClasses];
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    @Override
+    public Map<Long, Integer> load(String cartId) {
+        synchronized (lock(cartId)) {
+            Long handle = carts.get(cartId);
+            if (handle == null) {
+                return new LinkedHashMap<>();
+            }
+            ByteBuffer slab = slab(handle);
+            int offset = offset(handle);
+            return CartCodec.decode(slab.slice(offset + HEADER, slab.getInt(offset)));
+        }
+    }
+
+    @Override
+    public void save(String cartId, Map<Long, Integer> quantities) {
+        byte[] encoded = quantities.isEmpty() ? null : CartCodec.encode(quantities);
+        synchronized (lock(cartId)) {
+            Long handle = carts.get(cartId);
+            if (encoded == null) {
+                if (handle != null) {
+                    carts.remove(cartId);
+                    free(handle);
+                }
+                return;
+            }
+            int sizeClass = sizeClassFor(HEADER + encoded.length);
+            // Keep the chunk for as long as the re-encoded cart still fits.
+            if (handle == null || sizeClass(handle) < sizeClass) {
+                long allocated = allocate(sizeClass);
+                if (handle != null) {
+                    free(handle);
+                }
+                handle = allocated;
+            }
+            ByteBuffer slab = slab(handle);
+            int offset = offset(handle);
+            slab.putInt(offset, encoded.length);
+            slab.putLong(offset + Integer.BYTES, System.nanoTime());
+            slab.put(offset + HEADER, encoded);
+            carts.put(cartId, handle);
+        }
+    }
+
+    @Override
+    public void evictIdle() {
+        long now = System.nanoTime();
+        for (String cartId : carts.keySet()) {
+            synchronized (lock(cartId)) {
+                Long handle = carts.get(cartId);
+                if (handle != null && now - slab(handle).getLong(offset(handle) + Integer.BYTES) > maxIdleNanos) {
+                    carts.remove(cartId);
+                    free(handle);
+                }
+            }
+        }
+    }
+
+    public int size() {
+        return carts.size();
+    }
+
+    int slabCount() {
+        return slabs.length;
+    }
+
+    private Object lock(String cartId) {
+        return locks[cartId.hashCode() & (STRIPES - 1)];
+    }
+
+    private synchronized long allocate(int sizeClass) {
+        if (freeCounts[sizeClass] > 0) {
+            return freeLists[sizeClass][--freeCounts[sizeClass]];
+        }
+        int chunk = MIN_CHUNK << sizeClass;
+        ByteBuffer[] current = slabs;
+        if (current.length == 0 || top + chunk > slabBytes) {
+            ByteBuffer[] grown = Arrays.copyOf(current, current.length + 1);
+            grown[current.length] = ByteBuffer.allocateDirect(slabBytes);
+            slabs = current = grown;
+            top = 0;
+        }
+        long handle = (long) sizeClass << 56 | (long) (current.length - 1) << 32 | top;
+        top += chunk;
+        return handle;
+    }
+
+    private synchronized void free(long handle) {
+        int sizeClass = sizeClass(handle);
+        if (freeCounts[sizeClass] == freeLists[sizeClass].length) {
+            freeLists[sizeClass] = Arrays.copyOf(freeLists[sizeClass], freeCounts[sizeClass] * 2);
+        }
+        freeLists[sizeClass][freeCounts[sizeClass]++] = handle;
+    }
+
+    private int sizeClassFor(int bytes) {
+        int largest = MIN_CHUNK << (freeCounts.length - 1);
+        if (bytes > largest) {
+            throw new IllegalArgumentException("Cart needs " + bytes + " bytes; chunks hold at most " + largest);
+        }
+        int chunks = (bytes + MIN_CHUNK - 1) / MIN_CHUNK;
+        return chunks <= 1 ? 0 : 32 - Integer.numberOfLeadingZeros(chunks - 1);
+    }
+
+    private static int sizeClass(long handle) {
+        return (int) (handle >>> 56);
+    }
+
+    private ByteBuffer slab(long handle) {
+        return slabs[(int) (handle >>> 32) & 0xFF_FFFF];
+    }
+
+    private static int offset(long handle) {
+        return (int) handle;
+    }
+}
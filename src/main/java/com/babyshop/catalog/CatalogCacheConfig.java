@@ -0,0 +1,29 @@
+package com.babyshop.catalog;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+@Configuration
+@EnableCaching
+public class CatalogCacheConfig {
+    public static final String PRODUCTS = "products";
+    public static final String PRODUCT_LISTINGS = "productListings";
+
+    @Bean
+    public CacheManager cacheManager(
+            @Value("${app.catalog.cache.products-spec:maximumSize=10000,expireAfterWrite=30m,recordStats}") String productsSpec,
+            @Value("${app.catalog.cache.listings-spec:maximumSize=200,expireAfterWrite=5m,recordStats}") String listingsSpec) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setCacheNames(List.of());
+        cacheManager.registerCustomCache(PRODUCTS, Caffeine.from(productsSpec).build());
+        cacheManager.registerCustomCache(PRODUCT_LISTINGS, Caffeine.from(listingsSpec).build());
+        return cacheManager;
+    }
+}
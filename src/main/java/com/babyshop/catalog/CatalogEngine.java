@@ -0,0 +1,318 @@
+package com.babyshop.catalog;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.lang.reflect.Array;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.RandomAccess;
+
+/**
+ * Optional read model of the whole catalog ({@code app.catalog.engine.enabled}). Products are kept
+ * as columns of primitive and string arrays in an immutable {@link Snapshot}: ids sorted for
+ * lookups, plus a row permutation in {@code (name, id)} order for listings. Writes build a new
+ * snapshot (copy-on-write) and publish it through a volatile field, so reads take no locks and never
+ * touch the database. Reads return detached {@link Product}s materialized from a row.
+ */
+@Component("catalogEngine")
+public class CatalogEngine {
+    private static final Logger log = LoggerFactory.getLogger(CatalogEngine.class);
+    private static final ProductCategory[] CATEGORIES = ProductCategory.values();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private volatile Snapshot snapshot;
+
+    public CatalogEngine(JdbcTemplate jdbcTemplate, @Value("${app.catalog.engine.enabled:false}") boolean enabled) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        long started = System.nanoTime();
+        Snapshot.Builder builder = new Snapshot.Builder();
+        jdbcTemplate.query("""
+                select id, name, description, category, price, image_url, stock_quantity, version
+                from products order by id
+                """, rs -> {
+            builder.add(rs.getLong(1), rs.getString(2), rs.getString(3), ProductCategory.valueOf(rs.getString(4)),
+                    Money.toCents(rs.getBigDecimal(5)), rs.getString(6), rs.getInt(7), rs.getLong(8));
+        });
+        snapshot = builder.build();
+        log.info("Catalog engine loaded {} products in {} ms", snapshot.size(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    @Order(0)
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onProductChanged(ProductChangedEvent event) {
+        Snapshot current = snapshot;
+        if (current == null) {
+            return;
+        }
+        snapshot = event.removed() ? current.without(event.productId()) : current.with(event.product());
+    }
+
+    /**
+     * Whether reads can be served from memory: the engine is enabled and its first load is done.
+     */
+    public boolean isServing() {
+        return snapshot != null;
+    }
+
+    public Optional<Product> find(long id) {
+        Snapshot current = snapshot;
+        int row = current.row(id);
+        return row >= 0 ? Optional.of(current.product(row)) : Optional.empty();
+    }
+
+    /**
+     * Every product in {@code (name, id)} order, as a view over the current snapshot.
+     */
+    public List<Product> byName() {
+        return snapshot.byName(0);
+    }
+
+    /**
+     * Up to {@code limit} products in {@code (name, id)} order after the given position, or from the
+     * start when {@code name} is null.
+     */
+    public List<Product> byNameAfter(String name, long id, int limit) {
+        Snapshot current = snapshot;
+        List<Product> view = current.byName(name == null ? 0 : current.positionAfter(name, id));
+        return List.copyOf(view.subList(0, Math.min(limit, view.size())));
+    }
+
+    static final class Snapshot {
+        private final long[] ids;
+        private final String[] names;
+        private final String[] descriptions;
+        private final byte[] categories;
+        private final long[] prices;
+        private final String[] imageUrls;
+        private final int[] stock;
+        private final long[] versions;
+        private final int[] byName;
+
+        private Snapshot(long[] ids, String[] names, String[] descriptions, byte[] categories, long[] prices,
+                         String[] imageUrls, int[] stock, long[] versions, int[] byName) {
+            this.ids = ids;
+            this.names = names;
+            this.descriptions = descriptions;
+            this.categories = categories;
+            this.prices = prices;
+            this.imageUrls = imageUrls;
+            this.stock = stock;
+            this.versions = versions;
+            this.byName = byName;
+        }
+
+        int size() {
+            return ids.length;
+        }
+
+        int row(long id) {
+            return Arrays.binarySearch(ids, id);
+        }
+
+        Product product(int row) {
+            return new Product(ids[row], names[row], descriptions[row], CATEGORIES[categories[row]],
+                    Money.fromCents(prices[row]), imageUrls[row], stock[row], versions[row]);
+        }
+
+        List<Product> byName(int from) {
+            return new NameOrder(this, from);
+        }
+
+        /**
+         * First position in {@code byName} whose {@code (name, id)} sorts after the given one.
+         */
+        int positionAfter(String name, long id) {
+            int low = 0;
+            int high = byName.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (compare(byName[mid], name, id) <= 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private int compare(int row, String name, long id) {
+            int byNames = names[row].compareTo(name);
+            return byNames != 0 ? byNames : Long.compare(ids[row], id);
+        }
+
+        Snapshot with(Product product) {
+            long id = product.getId();
+            int row = row(id);
+            boolean exists = row >= 0;
+            int at = exists ? row : -row - 1;
+            int removed = exists ? 1 : 0;
+            Snapshot next = new Snapshot(
+                    splice(ids, at, removed), splice(names, at, removed), splice(descriptions, at, removed),
+                    splice(categories, at, removed), splice(prices, at, removed), splice(imageUrls, at, removed),
+                    splice(stock, at, removed), splice(versions, at, removed), null);
+            next.ids[at] = id;
+            next.names[at] = product.getName();
+            next.descriptions[at] = product.getDescription();
+            next.categories[at] = (byte) product.getCategory().ordinal();
+            next.prices[at] = Money.toCents(product.getPrice());
+            next.imageUrls[at] = product.getImageUrl();
+            next.stock[at] = product.getStockQuantity();
+            next.versions[at] = product.getVersion();
+            if (exists && names[row].equals(product.getName())) {
+                return next.withByName(byName);
+            }
+            return next.withByName(reorder(exists ? row : -1, exists ? Integer.MAX_VALUE : at, 1, at, next));
+        }
+
+        Snapshot without(long id) {
+            int row = row(id);
+            if (row < 0) {
+                return this;
+            }
+            Snapshot next = new Snapshot(
+                    splice(ids, row, 1, 0), splice(names, row, 1, 0), splice(descriptions, row, 1, 0),
+                    splice(categories, row, 1, 0), splice(prices, row, 1, 0), splice(imageUrls, row, 1, 0),
+                    splice(stock, row, 1, 0), splice(versions, row, 1, 0), null);
+            return next.withByName(reorder(row, row + 1, -1, -1, next));
+        }
+
+        private Snapshot withByName(int[] order) {
+            return new Snapshot(ids, names, descriptions, categories, prices, imageUrls, stock, versions, order);
+        }
+
+        /**
+         * The name order for {@code next}: drops {@code removedRow}, shifts rows at or after
+         * {@code shiftFrom} by {@code shiftBy}, and places {@code insertedRow} (a row of {@code next})
+         * at its sorted position. One pass over the permutation.
+         */
+        private int[] reorder(int removedRow, int shiftFrom, int shiftBy, int insertedRow, Snapshot next) {
+            int[] kept = new int[next.size()];
+            int count = 0;
+            for (int row : byName) {
+                if (row != removedRow) {
+                    kept[count++] = row >= shiftFrom ? row + shiftBy : row;
+                }
+            }
+            if (insertedRow < 0) {
+                return kept;
+            }
+            Snapshot partial = next.withByName(Arrays.copyOf(kept, count));
+            int position = partial.positionAfter(next.names[insertedRow], next.ids[insertedRow]);
+            System.arraycopy(kept, position, kept, position + 1, count - position);
+            kept[position] = insertedRow;
+            return kept;
+        }
+
+        /**
+         * A copy of {@code array} with {@code removed} elements at {@code at} replaced by one free slot.
+         */
+        private static <A> A splice(A array, int at, int removed) {
+            return splice(array, at, removed, 1);
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <A> A splice(A array, int at, int removed, int inserted) {
+            int length = Array.getLength(array);
+            A copy = (A) Array.newInstance(array.getClass().getComponentType(), length - removed + inserted);
+            System.arraycopy(array, 0, copy, 0, at);
+            System.arraycopy(array, at + removed, copy, at + inserted, length - at - removed);
+            return copy;
+        }
+
+        static final class Builder {
+            private final Map<String, String> imageUrls = new HashMap<>();
+            private long[] ids = new long[1024];
+            private String[] names = new String[1024];
+            private String[] descriptions = new String[1024];
+            private byte[] categories = new byte[1024];
+            private long[] prices = new long[1024];
+            private String[] urls = new String[1024];
+            private int[] stock = new int[1024];
+            private long[] versions = new long[1024];
+            private int size;
+
+            void add(long id, String name, String description, ProductCategory category, long priceCents,
+                     String imageUrl, int stockQuantity, long version) {
+                if (size == ids.length) {
+                    int capacity = size * 2;
+                    ids = Arrays.copyOf(ids, capacity);
+                    names = Arrays.copyOf(names, capacity);
+                    descriptions = Arrays.copyOf(descriptions, capacity);
+                    categories = Arrays.copyOf(categories, capacity);
+                    prices = Arrays.copyOf(prices, capacity);
+                    urls = Arrays.copyOf(urls, capacity);
+                    stock = Arrays.copyOf(stock, capacity);
+                    versions = Arrays.copyOf(versions, capacity);
+                }
+                ids[size] = id;
+                names[size] = name;
+                descriptions[size] = description;
+                categories[size] = (byte) category.ordinal();
+                prices[size] = priceCents;
+                // Many products share an image; keep one copy of each URL.
+                urls[size] = imageUrls.computeIfAbsent(imageUrl, url -> url);
+                stock[size] = stockQuantity;
+                versions[size] = version;
+                size++;
+            }
+
+            /**
+             * Rows must have been added in id order.
+             */
+            Snapshot build() {
+                Snapshot built = new Snapshot(Arrays.copyOf(ids, size), Arrays.copyOf(names, size),
+                        Arrays.copyOf(descriptions, size), Arrays.copyOf(categories, size), Arrays.copyOf(prices, size),
+                        Arrays.copyOf(urls, size), Arrays.copyOf(stock, size), Arrays.copyOf(versions, size), null);
+                Integer[] order = new Integer[size];
+                for (int i = 0; i < size; i++) {
+                    order[i] = i;
+                }
+                Arrays.sort(order, (a, b) -> built.compare(a, built.names[b], built.ids[b]));
+                return built.withByName(Arrays.stream(order).mapToInt(Integer::intValue).toArray());
+            }
+        }
+    }
+
+    private static final class NameOrder extends AbstractList<Product> implements RandomAccess {
+        private final Snapshot snapshot;
+        private final int from;
+
+        NameOrder(Snapshot snapshot, int from) {
+            this.snapshot = snapshot;
+            this.from = from;
+        }
+
+        @Override
+        public Product get(int index) {
+            Objects.checkIndex(index, size());
+            return snapshot.product(snapshot.byName[from + index]);
+        }
+
+        @Override
+        public int size() {
+            return snapshot.byName.length - from;
+        }
+    }
+}
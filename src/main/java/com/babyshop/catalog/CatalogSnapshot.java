@@ -0,0 +1,286 @@
+package com.babyshop.catalog;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Binary, columnar catalog snapshot.
+ * <p>
+ * The file is {@code "BSNP"}, a version byte and the category names, followed by chunks of up to
+ * {@link #CHUNK_ROWS} products and a zero terminator. Each chunk is {@code [int rows][int rawBytes]
+ * [int storedBytes][deflated payload]}; the payload stores one column after another (id deltas,
+ * category ordinals, price in cents, stock, name, description, and image URLs through a per-chunk
+ * dictionary), with integers as LEB128 varints. Chunks are independent, so they can be decoded in
+ * parallel while earlier ones are being inserted.
+ */
+public final class CatalogSnapshot {
+    static final int CHUNK_ROWS = 16_384;
+
+    private static final byte[] MAGIC = {'B', 'S', 'N', 'P'};
+    private static final byte VERSION = 1;
+
+    private CatalogSnapshot() {
+    }
+
+    public record Row(long id, String name, String description, ProductCategory category, long priceCents,
+                      String imageUrl, int stockQuantity) {
+    }
+
+    /**
+     * Streams rows into a snapshot; rows are buffered one chunk at a time.
+     */
+    public static final class Writer implements Closeable {
+        private final DataOutputStream out;
+        private final List<Row> chunk = new ArrayList<>(CHUNK_ROWS);
+        private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        private long rows;
+
+        public Writer(OutputStream out) throws IOException {
+            this.out = new DataOutputStream(out);
+            this.out.write(MAGIC);
+            this.out.writeByte(VERSION);
+            ProductCategory[] categories = ProductCategory.values();
+            this.out.writeInt(categories.length);
+            for (ProductCategory category : categories) {
+                this.out.writeUTF(category.name());
+            }
+        }
+
+        public void add(Row row) throws IOException {
+            chunk.add(row);
+            rows++;
+            if (chunk.size() == CHUNK_ROWS) {
+                flushChunk();
+            }
+        }
+
+        public long rows() {
+            return rows;
+        }
+
+        @Override
+        public void close() throws IOException {
+            flushChunk();
+            out.writeInt(0);
+            out.flush();
+            deflater.end();
+        }
+
+        private void flushChunk() throws IOException {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            byte[] raw = encode(chunk);
+            deflater.reset();
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream stored = new ByteArrayOutputStream(raw.length / 2 + 64);
+            byte[] buffer = new byte[64 * 1024];
+            while (!deflater.finished()) {
+                stored.write(buffer, 0, deflater.deflate(buffer));
+            }
+            out.writeInt(chunk.size());
+            out.writeInt(raw.length);
+            out.writeInt(stored.size());
+            stored.writeTo(out);
+            chunk.clear();
+        }
+    }
+
+    /**
+     * Reads the snapshot on the calling thread and hands every chunk to {@code executor} for
+     * decoding; {@code sink} receives the decoding futures in file order.
+     */
+    public static void read(InputStream in, Executor executor, Consumer<CompletableFuture<List<Row>>> sink)
+            throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        byte[] magic = new byte[MAGIC.length];
+        data.readFully(magic);
+        if (!Arrays.equals(magic, MAGIC)) {
+            throw new IOException("Not a catalog snapshot");
+        }
+        int version = data.readUnsignedByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported catalog snapshot version " + version);
+        }
+        ProductCategory[] categories = new ProductCategory[data.readInt()];
+        for (int i = 0; i < categories.length; i++) {
+            categories[i] = ProductCategory.valueOf(data.readUTF());
+        }
+        for (;;) {
+            int rows;
+            try {
+                rows = data.readInt();
+            } catch (EOFException ex) {
+                throw new IOException("Catalog snapshot is truncated", ex);
+            }
+            if (rows == 0) {
+                return;
+            }
+            int rawBytes = data.readInt();
+            byte[] stored = new byte[data.readInt()];
+            data.readFully(stored);
+            sink.accept(CompletableFuture.supplyAsync(() -> decode(stored, rawBytes, rows, categories), executor));
+        }
+    }
+
+    private static byte[] encode(List<Row> rows) {
+        Buffer out = new Buffer(rows.size() * 96);
+        long previousId = 0;
+        for (Row row : rows) {
+            out.zigzag(row.id() - previousId);
+            previousId = row.id();
+        }
+        for (Row row : rows) {
+            out.varint(row.category().ordinal());
+        }
+        for (Row row : rows) {
+            out.varint(row.priceCents());
+        }
+        for (Row row : rows) {
+            out.varint(row.stockQuantity());
+        }
+        for (Row row : rows) {
+            out.string(row.name());
+        }
+        for (Row row : rows) {
+            out.string(row.description());
+        }
+        Map<String, Integer> dictionary = new HashMap<>();
+        List<String> entries = new ArrayList<>();
+        int[] codes = new int[rows.size()];
+        for (int i = 0; i < rows.size(); i++) {
+            codes[i] = dictionary.computeIfAbsent(rows.get(i).imageUrl(), url -> {
+                entries.add(url);
+                return entries.size() - 1;
+            });
+        }
+        out.varint(entries.size());
+        entries.forEach(out::string);
+        for (int code : codes) {
+            out.varint(code);
+        }
+        return out.toByteArray();
+    }
+
+    private static List<Row> decode(byte[] stored, int rawBytes, int rows, ProductCategory[] categories) {
+        byte[] raw = new byte[rawBytes];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(stored);
+            int length = inflater.inflate(raw);
+            if (length != rawBytes) {
+                throw new UncheckedIOException(new IOException("Corrupt catalog snapshot chunk"));
+            }
+        } catch (DataFormatException ex) {
+            throw new UncheckedIOException(new IOException("Corrupt catalog snapshot chunk", ex));
+        } finally {
+            inflater.end();
+        }
+
+        ByteBuffer in = ByteBuffer.wrap(raw);
+        long[] ids = new long[rows];
+        long id = 0;
+        for (int i = 0; i < rows; i++) {
+            id += unzigzag(varint(in));
+            ids[i] = id;
+        }
+        ProductCategory[] category = new ProductCategory[rows];
+        for (int i = 0; i < rows; i++) {
+            category[i] = categories[(int) varint(in)];
+        }
+        long[] prices = new long[rows];
+        for (int i = 0; i < rows; i++) {
+            prices[i] = varint(in);
+        }
+        int[] stock = new int[rows];
+        for (int i = 0; i < rows; i++) {
+            stock[i] = (int) varint(in);
+        }
+        String[] names = new String[rows];
+        for (int i = 0; i < rows; i++) {
+            names[i] = string(in);
+        }
+        String[] descriptions = new String[rows];
+        for (int i = 0; i < rows; i++) {
+            descriptions[i] = string(in);
+        }
+        String[] dictionary = new String[(int) varint(in)];
+        for (int i = 0; i < dictionary.length; i++) {
+            dictionary[i] = string(in);
+        }
+        List<Row> result = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            result.add(new Row(ids[i], names[i], descriptions[i], category[i], prices[i],
+                    dictionary[(int) varint(in)], stock[i]));
+        }
+        return result;
+    }
+
+    private static long varint(ByteBuffer in) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static String string(ByteBuffer in) {
+        int length = (int) varint(in);
+        String value = new String(in.array(), in.position(), length, StandardCharsets.UTF_8);
+        in.position(in.position() + length);
+        return value;
+    }
+
+    private static final class Buffer extends ByteArrayOutputStream {
+        Buffer(int size) {
+            super(size);
+        }
+
+        void varint(long value) {
+            while ((value & ~0x7FL) != 0) {
+                write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            write((int) value);
+        }
+
+        void zigzag(long value) {
+            varint((value << 1) ^ (value >> 63));
+        }
+
+        void string(String value) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            varint(bytes.length);
+            write(bytes, 0, bytes.length);
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.babyshop.catalog;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.PreparedStatement;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Bulk import and export of the catalog as a {@link CatalogSnapshot}.
+ * <p>
+ * An import replaces every product in one transaction, keeping the ids from the snapshot. The file
+ * is read on its own thread, chunks are decoded on {@code app.catalog.snapshot.parser-threads}
+ * threads, and decoded chunks are inserted in file order with JDBC batches while later chunks are
+ * still being decoded. With {@code app.catalog.snapshot.import} set, the import runs at startup
+ * before {@code ApplicationReadyEvent}, so the search index, facet index and inventory are built over
+ * the imported catalog.
+ */
+@Service
+public class CatalogSnapshotService implements ApplicationRunner {
+    private static final Logger log = LoggerFactory.getLogger(CatalogSnapshotService.class);
+    private static final CompletableFuture<List<CatalogSnapshot.Row>> END = CompletableFuture.completedFuture(List.of());
+    private static final String INSERT = """
+            insert into products (id, name, description, category, price, image_url, in_stock, stock_quantity)
+            values (?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final String importPath;
+    private final int parserThreads;
+    private final int batchSize;
+
+    public CatalogSnapshotService(JdbcTemplate jdbcTemplate,
+                                  TransactionTemplate transactionTemplate,
+                                  @Value("${app.catalog.snapshot.import:}") String importPath,
+                                  @Value("${app.catalog.snapshot.parser-threads:0}") int parserThreads,
+                                  @Value("${app.catalog.snapshot.batch-size:1000}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.importPath = importPath;
+        this.parserThreads = parserThreads > 0 ? parserThreads : Runtime.getRuntime().availableProcessors();
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        if (importPath.isBlank()) {
+            return;
+        }
+        long started = System.nanoTime();
+        long rows = importFrom(Path.of(importPath));
+        log.info("Imported {} products from {} in {} ms", rows, importPath, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * Writes every product, in id order, to {@code out}. Rows are streamed from the database, so the
+     * catalog is never held in memory.
+     */
+    public long exportTo(OutputStream out) throws IOException {
+        CatalogSnapshot.Writer writer = new CatalogSnapshot.Writer(new BufferedOutputStream(out, 64 * 1024));
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.query(con -> {
+            PreparedStatement statement = con.prepareStatement("""
+                    select id, name, description, category, price, image_url, stock_quantity
+                    from products order by id
+                    """);
+            statement.setFetchSize(batchSize);
+            return statement;
+        }, rs -> {
+            try {
+                writer.add(new CatalogSnapshot.Row(rs.getLong(1), rs.getString(2), rs.getString(3),
+                        ProductCategory.valueOf(rs.getString(4)), Money.toCents(rs.getBigDecimal(5)),
+                        rs.getString(6), rs.getInt(7)));
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }));
+        writer.close();
+        return writer.rows();
+    }
+
+    /**
+     * Replaces the catalog with the products in {@code file} and returns how many were imported.
+     */
+    public long importFrom(Path file) throws IOException {
+        BlockingQueue<CompletableFuture<List<CatalogSnapshot.Row>>> chunks = new ArrayBlockingQueue<>(2 * parserThreads + 2);
+        ExecutorService parsers = Executors.newFixedThreadPool(parserThreads, daemon("catalog-snapshot-parser"));
+        Thread reader = daemon("catalog-snapshot-reader").newThread(() -> {
+            try (InputStream in = new BufferedInputStream(Files.newInputStream(file), 256 * 1024)) {
+                CatalogSnapshot.read(in, parsers, chunk -> put(chunks, chunk));
+                put(chunks, END);
+            } catch (IOException | RuntimeException ex) {
+                put(chunks, CompletableFuture.failedFuture(ex));
+            }
+        });
+        reader.start();
+        try {
+            Long rows = transactionTemplate.execute(status -> insert(chunks));
+            return rows == null ? 0 : rows;
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof UncheckedIOException io) {
+                throw io.getCause();
+            }
+            if (ex.getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw ex;
+        } finally {
+            reader.interrupt();
+            parsers.shutdownNow();
+        }
+    }
+
+    private long insert(BlockingQueue<CompletableFuture<List<CatalogSnapshot.Row>>> chunks) {
+        jdbcTemplate.update("delete from products");
+        long rows = 0;
+        long maxId = 0;
+        for (;;) {
+            CompletableFuture<List<CatalogSnapshot.Row>> chunk;
+            try {
+                chunk = chunks.take();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while importing the catalog", ex);
+            }
+            if (chunk == END) {
+                break;
+            }
+            List<CatalogSnapshot.Row> decoded = chunk.join();
+            jdbcTemplate.batchUpdate(INSERT, decoded, batchSize, (ps, row) -> {
+                ps.setLong(1, row.id());
+                ps.setString(2, row.name());
+                ps.setString(3, row.description());
+                ps.setString(4, row.category().name());
+                ps.setBigDecimal(5, Money.fromCents(row.priceCents()));
+                ps.setString(6, row.imageUrl());
+                ps.setBoolean(7, row.stockQuantity() > 0);
+                ps.setInt(8, row.stockQuantity());
+            });
+            rows += decoded.size();
+            for (CatalogSnapshot.Row row : decoded) {
+                maxId = Math.max(maxId, row.id());
+            }
+        }
+        // Explicit ids do not advance the identity column; new products must start after the imported ones.
+        jdbcTemplate.execute("alter table products alter column id restart with " + (maxId + 1));
+        return rows;
+    }
+
+    private static <T> void put(BlockingQueue<T> queue, T value) {
+        try {
+            queue.put(value);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while reading the catalog snapshot", ex);
+        }
+    }
+
+    private static ThreadFactory daemon(String name) {
+        return Thread.ofPlatform().name(name + "-", 0).daemon().factory();
+    }
+}
@@ -0,0 +1,64 @@
+package com.babyshop.catalog;
+
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory change counters for the catalog: one per product and one for the catalog as a whole,
+ * bumped on every product write together with the time of the write. Anything derived from a
+ * product (rendered markup, HTTP validators) can be keyed by {@code (id, version)} and never needs
+ * explicit invalidation.
+ * <p>
+ * Counters restart at zero with the application, so validators that outlive the process should also
+ * include {@link #epoch()}.
+ */
+@Component
+public class CatalogVersion {
+    private final long epoch = System.currentTimeMillis();
+    private final Map<Long, Stamp> products = new ConcurrentHashMap<>();
+    private volatile Stamp catalog = new Stamp(0, epoch);
+
+    @Order(0)
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onProductChanged(ProductChangedEvent event) {
+        Stamp stamp = new Stamp(catalog.version() + 1, Math.max(System.currentTimeMillis(), catalog.modifiedAt()));
+        if (event.removed()) {
+            products.remove(event.productId());
+        } else {
+            products.put(event.productId(), stamp);
+        }
+        catalog = stamp;
+    }
+
+    public long epoch() {
+        return epoch;
+    }
+
+    public long of(long productId) {
+        return product(productId).version();
+    }
+
+    public long lastModified(long productId) {
+        return product(productId).modifiedAt();
+    }
+
+    public long catalog() {
+        return catalog.version();
+    }
+
+    public long catalogLastModified() {
+        return catalog.modifiedAt();
+    }
+
+    private Stamp product(long productId) {
+        Stamp stamp = products.get(productId);
+        return stamp != null ? stamp : new Stamp(0, epoch);
+    }
+
+    private record Stamp(long version, long modifiedAt) {
+    }
+}
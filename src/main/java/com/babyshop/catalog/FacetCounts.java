@@ -0,0 +1,14 @@
+package com.babyshop.catalog;
+
+import java.util.Map;
+
+public record FacetCounts(Map<ProductCategory, Integer> categories, Map<PriceBand, Integer> priceBands, int inStock) {
+
+    public int category(ProductCategory category) {
+        return categories.getOrDefault(category, 0);
+    }
+
+    public int priceBand(PriceBand priceBand) {
+        return priceBands.getOrDefault(priceBand, 0);
+    }
+}
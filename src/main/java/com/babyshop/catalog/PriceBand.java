@@ -0,0 +1,34 @@
+package com.babyshop.catalog;
+
+import java.math.BigDecimal;
+
+public enum PriceBand {
+    UNDER_10("Under $10", 0, 1_000),
+    FROM_10_TO_20("$10 – $20", 1_000, 2_000),
+    FROM_20_TO_50("$20 – $50", 2_000, 5_000),
+    OVER_50("$50 and up", 5_000, Long.MAX_VALUE);
+
+    private final String label;
+    private final long minCents;
+    private final long maxCentsExclusive;
+
+    PriceBand(String label, long minCents, long maxCentsExclusive) {
+        this.label = label;
+        this.minCents = minCents;
+        this.maxCentsExclusive = maxCentsExclusive;
+    }
+
+    public static PriceBand of(BigDecimal price) {
+        long cents = Money.toCents(price);
+        for (PriceBand band : values()) {
+            if (cents >= band.minCents && cents < band.maxCentsExclusive) {
+                return band;
+            }
+        }
+        return UNDER_10;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+}
@@ -2,17 +2,22 @@ package com.babyshop.catalog;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.math.BigDecimal;
 
 @Entity
-@Table(name = "products")
+@EntityListeners(ProductChangeListener.class)
+@Table(name = "products", indexes = @Index(name = "idx_products_name_id", columnList = "name, id"))
 public class Product {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -37,16 +42,35 @@ public class Product {
     @Column(nullable = false)
     private boolean inStock;
 
+    @Column(nullable = false)
+    private int stockQuantity;
+
+    @Version
+    @ColumnDefault("0")
+    private long version;
+
     protected Product() {
     }
 
-    public Product(String name, String description, ProductCategory category, BigDecimal price, String imageUrl, boolean inStock) {
+    public Product(String name, String description, ProductCategory category, BigDecimal price, String imageUrl, int stockQuantity) {
         this.name = name;
         this.description = description;
         this.category = category;
         this.price = price;
         this.imageUrl = imageUrl;
-        this.inStock = inStock;
+        this.stockQuantity = stockQuantity;
+        this.inStock = stockQuantity > 0;
+    }
+
+    /**
+     * A detached copy of a stored product, for in-memory catalog structures that keep rows rather
+     * than entities.
+     */
+    Product(long id, String name, String description, ProductCategory category, BigDecimal price, String imageUrl,
+            int stockQuantity, long version) {
+        this(name, description, category, price, imageUrl, stockQuantity);
+        this.id = id;
+        this.version = version;
     }
 
     public Long getId() {
@@ -76,5 +100,21 @@ public class Product {
     public boolean isInStock() {
         return inStock;
     }
-}
 
+    public int getStockQuantity() {
+        return stockQuantity;
+    }
+
+    /**
+     * Bumped on every JPA write of the product. It travels with the instance, so anything derived
+     * from this instance can be keyed by {@code (id, version)} no matter how stale the instance is.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public void adjustStock(int delta) {
+        stockQuantity = Math.max(0, stockQuantity + delta);
+        inStock = stockQuantity > 0;
+    }
+}
@@ -0,0 +1,8 @@
+package com.babyshop.catalog;
+
+public record ProductChangedEvent(Product product, boolean removed) {
+
+    public long productId() {
+        return product.getId();
+    }
+}
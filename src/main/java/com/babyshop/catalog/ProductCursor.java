@@ -0,0 +1,82 @@
+package com.babyshop.catalog;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque {@code after} token for catalog pages: either a seek position (the sort key of the last
+ * product shown) in one {@link ProductSort} order, or an offset into a ranked search result.
+ */
+record ProductCursor(ProductSort sort, String name, long id, long priceCents, int offset) {
+    private static final char OFFSET = 'o';
+    private static final char[] SEEK = {'k', 'a', 'd', 'n'};
+
+    static ProductCursor after(Product product) {
+        return new ProductCursor(ProductSort.NAME, product.getName(), product.getId(), 0, -1);
+    }
+
+    static ProductCursor after(ProductSort sort, Product product, long priceCents) {
+        return new ProductCursor(sort, product.getName(), product.getId(), priceCents, -1);
+    }
+
+    static ProductCursor atOffset(int offset) {
+        return new ProductCursor(null, null, 0, 0, offset);
+    }
+
+    static ProductCursor decode(String token) {
+        if (token == null) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            if (raw.charAt(0) == OFFSET) {
+                int offset = Integer.parseInt(raw.substring(1));
+                // A negative offset would read as a seek cursor without a sort key.
+                return offset < 0 ? null : atOffset(offset);
+            }
+            for (ProductSort sort : ProductSort.values()) {
+                if (raw.charAt(0) == SEEK[sort.ordinal()]) {
+                    return decodeSeek(sort, raw);
+                }
+            }
+        } catch (IllegalArgumentException | IndexOutOfBoundsException ignored) {
+            // A malformed cursor restarts from the first page.
+        }
+        return null;
+    }
+
+    /**
+     * Seek tokens are {@code <kind>[<priceCents>:]<id>|<name>}; the price is only present for price orders.
+     */
+    private static ProductCursor decodeSeek(ProductSort sort, String raw) {
+        int separator = raw.indexOf('|');
+        String key = raw.substring(1, separator);
+        long priceCents = 0;
+        if (sort == ProductSort.PRICE_ASC || sort == ProductSort.PRICE_DESC) {
+            int colon = key.indexOf(':');
+            priceCents = Long.parseLong(key.substring(0, colon));
+            key = key.substring(colon + 1);
+        }
+        return new ProductCursor(sort, raw.substring(separator + 1), Long.parseLong(key), priceCents, -1);
+    }
+
+    boolean isSeek() {
+        return offset < 0;
+    }
+
+    boolean seeks(ProductSort order) {
+        return isSeek() && sort == order;
+    }
+
+    String encode() {
+        String raw;
+        if (!isSeek()) {
+            raw = OFFSET + Integer.toString(offset);
+        } else if (sort == ProductSort.PRICE_ASC || sort == ProductSort.PRICE_DESC) {
+            raw = SEEK[sort.ordinal()] + Long.toString(priceCents) + ':' + id + '|' + name;
+        } else {
+            raw = SEEK[sort.ordinal()] + Long.toString(id) + '|' + name;
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,379 @@
+package com.babyshop.catalog;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-facet posting lists (bitsets over name-ordered product ordinals) for category, price band and
+ * stock status, plus prices in cents and the ordinals permuted into each other {@link ProductSort}
+ * order. Sorting and price ranges compare primitives only: a range is a slice of the price order found
+ * by binary search. The whole structure is an immutable snapshot that is swapped on product writes,
+ * so readers never lock.
+ */
+@Component
+public class ProductFacetIndex {
+    private static final Comparator<Product> NAME_ORDER =
+            Comparator.comparing(Product::getName).thenComparing(Product::getId);
+
+    private final ProductRepository productRepository;
+    private volatile Snapshot snapshot;
+
+    public ProductFacetIndex(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        snapshot = new Snapshot(productRepository.findAll());
+    }
+
+    @Order(0)
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onProductChanged(ProductChangedEvent event) {
+        Snapshot current = snapshot;
+        if (current == null) {
+            return;
+        }
+        List<Product> products = new ArrayList<>(current.products.length + 1);
+        for (Product product : current.products) {
+            if (product.getId() != event.productId()) {
+                products.add(product);
+            }
+        }
+        if (!event.removed()) {
+            products.add(event.product());
+        }
+        snapshot = new Snapshot(products);
+    }
+
+    public FacetCounts count(List<Product> scope, ProductFilter filter) {
+        Snapshot s = snapshot();
+        BitSet base = scope(s, scope, filter);
+        BitSet categoryMask = union(s.byCategory, filter.categories());
+        BitSet priceMask = union(s.byPriceBand, filter.priceBands());
+        BitSet stockMask = filter.inStockOnly() ? s.inStock : null;
+
+        Map<ProductCategory, Integer> categories = new EnumMap<>(ProductCategory.class);
+        s.byCategory.forEach((category, bits) ->
+                categories.put(category, cardinality(base, bits, priceMask, stockMask)));
+        Map<PriceBand, Integer> priceBands = new EnumMap<>(PriceBand.class);
+        s.byPriceBand.forEach((band, bits) ->
+                priceBands.put(band, cardinality(base, bits, categoryMask, stockMask)));
+        int inStock = cardinality(base, s.inStock, categoryMask, priceMask);
+        return new FacetCounts(categories, priceBands, inStock);
+    }
+
+    /**
+     * Filters {@code ranked} (a search result, kept in rank order unless another {@code sort} is asked
+     * for) or, when it is {@code null}, the whole catalog in {@code sort} order.
+     */
+    ProductPage page(List<Product> ranked, ProductFilter filter, ProductSort sort, ProductCursor cursor, int size,
+                     FacetCounts facets) {
+        Snapshot s = snapshot();
+        BitSet matches = (BitSet) s.all.clone();
+        andNullable(matches, union(s.byCategory, filter.categories()));
+        andNullable(matches, union(s.byPriceBand, filter.priceBands()));
+        andNullable(matches, filter.inStockOnly() ? s.inStock : null);
+        if (filter.hasPriceRange()) {
+            matches.and(s.priceRange(filter.minPriceCents(), filter.maxPriceCents()));
+        }
+
+        if (ranked != null) {
+            List<Integer> filtered = new ArrayList<>();
+            for (Product product : ranked) {
+                Integer ordinal = s.ordinals.get(product.getId());
+                if (ordinal != null && matches.get(ordinal)) {
+                    filtered.add(ordinal);
+                }
+            }
+            if (sort != ProductSort.NAME) {
+                filtered.sort((a, b) -> s.compare(sort, a, b));
+            }
+            int from = (cursor == null || cursor.isSeek()) ? 0 : Math.min(cursor.offset(), filtered.size());
+            int to = Math.min(from + size, filtered.size());
+            String next = to < filtered.size() ? ProductCursor.atOffset(to).encode() : null;
+            List<Product> items = new ArrayList<>(to - from);
+            for (int ordinal : filtered.subList(from, to)) {
+                items.add(s.products[ordinal]);
+            }
+            return new ProductPage(List.copyOf(items), next, facets);
+        }
+        if (sort != ProductSort.NAME) {
+            return sortedPage(s, matches, filter, sort, cursor, size, facets);
+        }
+
+        boolean seek = cursor != null && cursor.seeks(ProductSort.NAME);
+        int start = seek ? s.firstOrdinalAfter(cursor.name(), cursor.id()) : 0;
+        List<Product> items = new ArrayList<>(size);
+        int ordinal = matches.nextSetBit(start);
+        while (ordinal >= 0 && items.size() < size) {
+            items.add(s.products[ordinal]);
+            ordinal = matches.nextSetBit(ordinal + 1);
+        }
+        String next = ordinal >= 0 ? ProductCursor.after(items.get(items.size() - 1)).encode() : null;
+        return new ProductPage(List.copyOf(items), next, facets);
+    }
+
+    /**
+     * The products counted for facets: {@code scope} (or the catalog) within the price range, if any.
+     */
+    private static BitSet scope(Snapshot s, List<Product> scope, ProductFilter filter) {
+        BitSet base = scope == null ? s.all : s.toBits(scope);
+        if (!filter.hasPriceRange()) {
+            return base;
+        }
+        BitSet inRange = s.priceRange(filter.minPriceCents(), filter.maxPriceCents());
+        inRange.and(base);
+        return inRange;
+    }
+
+    private static ProductPage sortedPage(Snapshot s, BitSet matches, ProductFilter filter, ProductSort sort,
+                                          ProductCursor cursor, int size, FacetCounts facets) {
+        int[] order = s.order(sort);
+        int from = 0;
+        int to = order.length;
+        if (sort != ProductSort.NEWEST && filter.hasPriceRange()) {
+            // The range is one contiguous slice of either price order; skip everything outside it.
+            int low = s.firstPriceAtLeast(filter.minPriceCents());
+            int high = s.firstPriceAbove(filter.maxPriceCents());
+            from = sort == ProductSort.PRICE_ASC ? low : order.length - high;
+            to = sort == ProductSort.PRICE_ASC ? high : order.length - low;
+        }
+        if (cursor != null && cursor.seeks(sort)) {
+            from = Math.max(from, s.positionAfter(sort, cursor));
+        }
+        List<Product> items = new ArrayList<>(size);
+        int last = -1;
+        int position = from;
+        for (; position < to; position++) {
+            int ordinal = order[position];
+            if (matches.get(ordinal)) {
+                if (items.size() == size) {
+                    break;
+                }
+                items.add(s.products[ordinal]);
+                last = ordinal;
+            }
+        }
+        String next = position < to
+                ? ProductCursor.after(sort, s.products[last], s.priceCents[last]).encode()
+                : null;
+        return new ProductPage(List.copyOf(items), next, facets);
+    }
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (snapshot == null) {
+                rebuild();
+            }
+            return snapshot;
+        }
+    }
+
+    private static <K> BitSet union(Map<K, BitSet> postings, Collection<K> keys) {
+        if (keys.isEmpty()) {
+            return null;
+        }
+        BitSet result = new BitSet();
+        for (K key : keys) {
+            result.or(postings.get(key));
+        }
+        return result;
+    }
+
+    private static void andNullable(BitSet target, BitSet mask) {
+        if (mask != null) {
+            target.and(mask);
+        }
+    }
+
+    private static int cardinality(BitSet base, BitSet facet, BitSet maskA, BitSet maskB) {
+        BitSet result = (BitSet) base.clone();
+        result.and(facet);
+        andNullable(result, maskA);
+        andNullable(result, maskB);
+        return result.cardinality();
+    }
+
+    private static final class Snapshot {
+        private final Product[] products;
+        private final long[] priceCents;
+        private final int[] byPriceAsc;
+        private final int[] byPriceDesc;
+        private final int[] byNewest;
+        private final Map<Long, Integer> ordinals;
+        private final Map<ProductCategory, BitSet> byCategory = new EnumMap<>(ProductCategory.class);
+        private final Map<PriceBand, BitSet> byPriceBand = new EnumMap<>(PriceBand.class);
+        private final BitSet inStock;
+        private final BitSet all;
+
+        Snapshot(List<Product> source) {
+            products = source.toArray(Product[]::new);
+            Arrays.sort(products, NAME_ORDER);
+            ordinals = new HashMap<>(products.length * 2);
+            for (ProductCategory category : ProductCategory.values()) {
+                byCategory.put(category, new BitSet(products.length));
+            }
+            for (PriceBand band : PriceBand.values()) {
+                byPriceBand.put(band, new BitSet(products.length));
+            }
+            inStock = new BitSet(products.length);
+            all = new BitSet(products.length);
+            all.set(0, products.length);
+            priceCents = new long[products.length];
+
+            for (int ordinal = 0; ordinal < products.length; ordinal++) {
+                Product product = products[ordinal];
+                priceCents[ordinal] = Money.toCents(product.getPrice());
+                ordinals.put(product.getId(), ordinal);
+                byCategory.get(product.getCategory()).set(ordinal);
+                byPriceBand.get(PriceBand.of(product.getPrice())).set(ordinal);
+                if (product.isInStock()) {
+                    inStock.set(ordinal);
+                }
+            }
+            byPriceAsc = permutation(ProductSort.PRICE_ASC);
+            byPriceDesc = permutation(ProductSort.PRICE_DESC);
+            byNewest = permutation(ProductSort.NEWEST);
+        }
+
+        private int[] permutation(ProductSort sort) {
+            Integer[] order = new Integer[products.length];
+            for (int ordinal = 0; ordinal < order.length; ordinal++) {
+                order[ordinal] = ordinal;
+            }
+            Arrays.sort(order, (a, b) -> compare(sort, a, b));
+            return Arrays.stream(order).mapToInt(Integer::intValue).toArray();
+        }
+
+        int[] order(ProductSort sort) {
+            return switch (sort) {
+                case PRICE_ASC -> byPriceAsc;
+                case PRICE_DESC -> byPriceDesc;
+                case NEWEST -> byNewest;
+                case NAME -> throw new IllegalArgumentException("Name order is the ordinal order");
+            };
+        }
+
+        /**
+         * Orders two ordinals for {@code sort}; ties in price fall back to name order, which is ordinal order.
+         */
+        int compare(ProductSort sort, int a, int b) {
+            int byKey = switch (sort) {
+                case PRICE_ASC -> Long.compare(priceCents[a], priceCents[b]);
+                case PRICE_DESC -> Long.compare(priceCents[b], priceCents[a]);
+                case NEWEST -> Long.compare(products[b].getId(), products[a].getId());
+                case NAME -> 0;
+            };
+            return byKey != 0 ? byKey : Integer.compare(a, b);
+        }
+
+        /**
+         * First position in {@code sort} order whose product sorts after the cursor's.
+         */
+        int positionAfter(ProductSort sort, ProductCursor cursor) {
+            int[] order = order(sort);
+            int low = 0;
+            int high = order.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (compare(sort, order[mid], cursor) <= 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private int compare(ProductSort sort, int ordinal, ProductCursor cursor) {
+            Product product = products[ordinal];
+            int byKey = switch (sort) {
+                case PRICE_ASC -> Long.compare(priceCents[ordinal], cursor.priceCents());
+                case PRICE_DESC -> Long.compare(cursor.priceCents(), priceCents[ordinal]);
+                case NEWEST -> Long.compare(cursor.id(), product.getId());
+                case NAME -> 0;
+            };
+            if (byKey != 0 || sort == ProductSort.NEWEST) {
+                return byKey;
+            }
+            int byName = product.getName().compareTo(cursor.name());
+            return byName != 0 ? byName : Long.compare(product.getId(), cursor.id());
+        }
+
+        /**
+         * Number of products cheaper than {@code cents}: the first position in ascending price order
+         * with a price of at least {@code cents}.
+         */
+        int firstPriceAtLeast(long cents) {
+            int low = 0;
+            int high = byPriceAsc.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (priceCents[byPriceAsc[mid]] < cents) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        int firstPriceAbove(long cents) {
+            return cents == Long.MAX_VALUE ? byPriceAsc.length : firstPriceAtLeast(cents + 1);
+        }
+
+        BitSet priceRange(long minCents, long maxCents) {
+            int from = firstPriceAtLeast(minCents);
+            int to = firstPriceAbove(maxCents);
+            BitSet bits = new BitSet(products.length);
+            for (int position = from; position < to; position++) {
+                bits.set(byPriceAsc[position]);
+            }
+            return bits;
+        }
+
+        BitSet toBits(List<Product> scope) {
+            BitSet bits = new BitSet(products.length);
+            for (Product product : scope) {
+                Integer ordinal = ordinals.get(product.getId());
+                if (ordinal != null) {
+                    bits.set(ordinal);
+                }
+            }
+            return bits;
+        }
+
+        int firstOrdinalAfter(String name, long id) {
+            int low = 0;
+            int high = products.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                int cmp = products[mid].getName().compareTo(name);
+                if (cmp < 0 || (cmp == 0 && products[mid].getId() <= id)) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
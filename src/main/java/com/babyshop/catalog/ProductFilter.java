@@ -0,0 +1,44 @@
+package com.babyshop.catalog;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Facet selections for a catalog listing. The price range is inclusive, in cents; {@code 0} and
+ * {@link Long#MAX_VALUE} mean no lower and no upper bound.
+ */
+public record ProductFilter(Set<ProductCategory> categories, Set<PriceBand> priceBands, boolean inStockOnly,
+                            long minPriceCents, long maxPriceCents) {
+    public static final ProductFilter NONE = new ProductFilter(Set.of(), Set.of(), false, 0, Long.MAX_VALUE);
+    private static final BigDecimal MAX_PRICE = Money.fromCents(Long.MAX_VALUE / 2);
+
+    public static ProductFilter of(Collection<ProductCategory> categories, Collection<PriceBand> priceBands, boolean inStockOnly) {
+        return of(categories, priceBands, inStockOnly, null, null);
+    }
+
+    public static ProductFilter of(Collection<ProductCategory> categories, Collection<PriceBand> priceBands,
+                                   boolean inStockOnly, BigDecimal minPrice, BigDecimal maxPrice) {
+        return new ProductFilter(
+                categories == null ? Set.of() : Set.copyOf(categories),
+                priceBands == null ? Set.of() : Set.copyOf(priceBands),
+                inStockOnly,
+                minPrice == null ? 0 : cents(minPrice),
+                maxPrice == null ? Long.MAX_VALUE : cents(maxPrice));
+    }
+
+    private static long cents(BigDecimal price) {
+        if (price.signum() < 0) {
+            return 0;
+        }
+        return price.compareTo(MAX_PRICE) > 0 ? Long.MAX_VALUE : Money.toCents(price);
+    }
+
+    public boolean hasPriceRange() {
+        return minPriceCents > 0 || maxPriceCents < Long.MAX_VALUE;
+    }
+
+    public boolean isEmpty() {
+        return categories.isEmpty() && priceBands.isEmpty() && !inStockOnly && !hasPriceRange();
+    }
+}
@@ -0,0 +1,10 @@
+package com.babyshop.catalog;
+
+import java.util.List;
+
+public record ProductPage(List<Product> items, String nextCursor, FacetCounts facets) {
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+}
@@ -0,0 +1,18 @@
+package com.babyshop.catalog;
+
+public record ProductQuery(String q, String after, int size, ProductFilter filter, ProductSort sort) {
+    public static final int DEFAULT_SIZE = 24;
+    public static final int MAX_SIZE = 100;
+
+    public static ProductQuery of(String q, String after, Integer size, ProductFilter filter, ProductSort sort) {
+        String query = (q == null || q.isBlank()) ? null : q.trim();
+        String cursor = (after == null || after.isBlank()) ? null : after.trim();
+        int pageSize = size == null ? DEFAULT_SIZE : Math.min(Math.max(size, 1), MAX_SIZE);
+        return new ProductQuery(query, cursor, pageSize, filter == null ? ProductFilter.NONE : filter,
+                sort == null ? ProductSort.NAME : sort);
+    }
+
+    public boolean hasQuery() {
+        return q != null;
+    }
+}
@@ -1,10 +1,15 @@
 package com.babyshop.catalog;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface ProductRepository extends JpaRepository<Product, Long> {
 
@@ -17,5 +22,20 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     List<Product> search(@Param("q") String q);
 
     List<Product> findAllByOrderByNameAsc();
-}
 
+    List<Product> findAllByOrderByNameAscIdAsc(Limit limit);
+
+    @Query("""
+            select p from Product p
+            where p.name > :name or (p.name = :name and p.id > :id)
+            order by p.name asc, p.id asc
+            """)
+    List<Product> findPageAfter(@Param("name") String name, @Param("id") long id, Limit limit);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "256"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select p from Product p order by p.name asc, p.id asc")
+    Stream<Product> streamAllOrderedByName();
+}
@@ -0,0 +1,313 @@
+package com.babyshop.catalog;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Tokenized inverted index over product name and description.
+ * <p>
+ * Every query token must match a document, either exactly, as a prefix of an indexed term, or (when
+ * neither finds anything) within a small edit distance. Matches are ranked by field weight and term
+ * rarity.
+ */
+@Component
+public class ProductSearchIndex {
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern APOSTROPHES = Pattern.compile("['’]");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private static final float NAME_WEIGHT = 3f;
+    private static final float DESCRIPTION_WEIGHT = 1f;
+    private static final float PREFIX_FACTOR = 0.6f;
+    private static final float FUZZY_FACTOR = 0.4f;
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+    private static final int MIN_FUZZY_LENGTH = 4;
+
+    private final ProductRepository productRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final NavigableMap<String, Postings> postings = new TreeMap<>();
+    private final Map<Long, Integer> docIdsByProductId = new HashMap<>();
+    private final List<Document> documents = new ArrayList<>();
+    private volatile boolean ready;
+
+    public ProductSearchIndex(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<Product> products = productRepository.findAll();
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            docIdsByProductId.clear();
+            documents.clear();
+            products.forEach(this::addDocument);
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Order(0)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(event.productId());
+            if (!event.removed()) {
+                addDocument(event.product());
+            }
+            if (documents.size() > 2 * docIdsByProductId.size() + 1024) {
+                compact();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docIdsByProductId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Product> search(String query) {
+        List<String> tokens = new ArrayList<>(new LinkedHashSet<>(tokenize(query)));
+        if (tokens.isEmpty()) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            int maxDoc = documents.size();
+            float[] scores = new float[maxDoc];
+            int[] matchedTokens = new int[maxDoc];
+            float[] tokenBest = new float[maxDoc];
+            int[] tokenMarker = new int[maxDoc];
+            int[] touched = new int[64];
+
+            for (int t = 0; t < tokens.size(); t++) {
+                int marker = t + 1;
+                int touchedCount = 0;
+                for (Map.Entry<String, Float> expansion : expand(tokens.get(t)).entrySet()) {
+                    Postings termPostings = postings.get(expansion.getKey());
+                    float factor = expansion.getValue() * idf(termPostings.size);
+                    for (int i = 0; i < termPostings.size; i++) {
+                        int doc = termPostings.docs[i];
+                        if (matchedTokens[doc] != t) {
+                            continue;
+                        }
+                        float score = factor * termPostings.weights[i];
+                        if (tokenMarker[doc] != marker) {
+                            tokenMarker[doc] = marker;
+                            tokenBest[doc] = score;
+                            if (touchedCount == touched.length) {
+                                touched = Arrays.copyOf(touched, touched.length * 2);
+                            }
+                            touched[touchedCount++] = doc;
+                        } else if (score > tokenBest[doc]) {
+                            tokenBest[doc] = score;
+                        }
+                    }
+                }
+                if (touchedCount == 0) {
+                    return List.of();
+                }
+                for (int i = 0; i < touchedCount; i++) {
+                    int doc = touched[i];
+                    matchedTokens[doc]++;
+                    scores[doc] += tokenBest[doc];
+                }
+            }
+
+            List<Hit> hits = new ArrayList<>();
+            for (int doc = 0; doc < maxDoc; doc++) {
+                if (matchedTokens[doc] == tokens.size()) {
+                    hits.add(new Hit(documents.get(doc).product(), scores[doc]));
+                }
+            }
+            hits.sort(Comparator.comparingDouble(Hit::score).reversed()
+                    .thenComparing(h -> h.product().getName(), String.CASE_INSENSITIVE_ORDER));
+            return hits.stream().map(Hit::product).toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String folded = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        folded = APOSTROPHES.matcher(folded.toLowerCase(Locale.ROOT)).replaceAll("");
+        List<String> tokens = new ArrayList<>();
+        for (String token : SEPARATORS.split(folded)) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private Map<String, Float> expand(String token) {
+        Map<String, Float> expansions = new LinkedHashMap<>();
+        if (postings.containsKey(token)) {
+            expansions.put(token, 1f);
+        }
+        if (token.length() >= 2) {
+            int count = 0;
+            for (String term : postings.subMap(token, false, token + Character.MAX_VALUE, false).keySet()) {
+                expansions.put(term, PREFIX_FACTOR);
+                if (++count == MAX_PREFIX_EXPANSIONS) {
+                    break;
+                }
+            }
+        }
+        if (expansions.isEmpty() && token.length() >= MIN_FUZZY_LENGTH) {
+            int maxDistance = token.length() >= 8 ? 2 : 1;
+            String first = token.substring(0, 1);
+            for (String term : postings.subMap(first, true, first + Character.MAX_VALUE, false).keySet()) {
+                if (Math.abs(term.length() - token.length()) <= maxDistance
+                        && editDistance(token, term, maxDistance) <= maxDistance) {
+                    expansions.put(term, FUZZY_FACTOR);
+                }
+            }
+        }
+        return expansions;
+    }
+
+    private float idf(int documentFrequency) {
+        return (float) Math.log(1 + (double) docIdsByProductId.size() / documentFrequency);
+    }
+
+    private void addDocument(Product product) {
+        Map<String, Float> weights = new HashMap<>();
+        for (String token : tokenize(product.getName())) {
+            weights.merge(token, NAME_WEIGHT, Float::sum);
+        }
+        for (String token : tokenize(product.getDescription())) {
+            weights.merge(token, DESCRIPTION_WEIGHT, Float::sum);
+        }
+
+        int doc = documents.size();
+        documents.add(new Document(product, weights.keySet().toArray(String[]::new)));
+        docIdsByProductId.put(product.getId(), doc);
+        weights.forEach((term, weight) -> postings.computeIfAbsent(term, k -> new Postings()).add(doc, weight));
+    }
+
+    private void removeDocument(long productId) {
+        Integer doc = docIdsByProductId.remove(productId);
+        if (doc == null) {
+            return;
+        }
+        for (String term : documents.get(doc).terms()) {
+            Postings termPostings = postings.get(term);
+            termPostings.remove(doc);
+            if (termPostings.size == 0) {
+                postings.remove(term);
+            }
+        }
+        documents.set(doc, Document.REMOVED);
+    }
+
+    private void compact() {
+        List<Product> live = documents.stream()
+                .filter(d -> d != Document.REMOVED)
+                .map(Document::product)
+                .toList();
+        postings.clear();
+        docIdsByProductId.clear();
+        documents.clear();
+        live.forEach(this::addDocument);
+    }
+
+    static int editDistance(String a, String b, int max) {
+        int[] previousPrevious = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    value = Math.min(value, previousPrevious[j - 2] + 1);
+                }
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int[] recycled = previousPrevious;
+            previousPrevious = previous;
+            previous = current;
+            current = recycled;
+        }
+        return previous[b.length()];
+    }
+
+    private record Document(Product product, String[] terms) {
+        static final Document REMOVED = new Document(null, new String[0]);
+    }
+
+    private record Hit(Product product, float score) {
+    }
+
+    private static final class Postings {
+        private int[] docs = new int[4];
+        private float[] weights = new float[4];
+        private int size;
+
+        void add(int doc, float weight) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            docs[size] = doc;
+            weights[size] = weight;
+            size++;
+        }
+
+        void remove(int doc) {
+            int index = Arrays.binarySearch(docs, 0, size, doc);
+            if (index < 0) {
+                return;
+            }
+            System.arraycopy(docs, index + 1, docs, index, size - index - 1);
+            System.arraycopy(weights, index + 1, weights, index, size - index - 1);
+            size--;
+        }
+    }
+}
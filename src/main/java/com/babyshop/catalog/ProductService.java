@@ -1,28 +1,124 @@
 package com.babyshop.catalog;
 
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class ProductService {
     private final ProductRepository productRepository;
+    private final ProductSearchIndex searchIndex;
+    private final ProductFacetIndex facetIndex;
+    private final EntityManager entityManager;
+    private final CatalogEngine catalogEngine;
 
-    public ProductService(ProductRepository productRepository) {
+    public ProductService(ProductRepository productRepository,
+                          ProductSearchIndex searchIndex,
+                          ProductFacetIndex facetIndex,
+                          EntityManager entityManager,
+                          CatalogEngine catalogEngine) {
         this.productRepository = productRepository;
+        this.searchIndex = searchIndex;
+        this.facetIndex = facetIndex;
+        this.entityManager = entityManager;
+        this.catalogEngine = catalogEngine;
     }
 
+    // Reads the catalog engine can answer skip the cache: its snapshot is already in memory. Searches
+    // skip it until the search index is ready, so the interim LIKE results are never kept.
+    @Timed("babyshop.catalog.list")
+    @Cacheable(cacheNames = CatalogCacheConfig.PRODUCT_LISTINGS, key = "#q.orElse('').trim().toLowerCase()",
+            condition = "(#q.isPresent() and !#q.get().isBlank())"
+                    + " ? @productSearchIndex.ready : !@catalogEngine.serving")
     public List<Product> listProducts(Optional<String> q) {
         if (q.isPresent() && !q.get().isBlank()) {
-            return productRepository.search(q.get().trim());
+            return search(q.get().trim());
+        }
+        if (catalogEngine.isServing()) {
+            return catalogEngine.byName();
         }
         return productRepository.findAllByOrderByNameAsc();
     }
 
+    @Timed("babyshop.catalog.page")
+    @Cacheable(cacheNames = CatalogCacheConfig.PRODUCT_LISTINGS,
+            condition = "!#query.hasQuery() or @productSearchIndex.ready")
+    public ProductPage listPage(ProductQuery query) {
+        ProductCursor cursor = ProductCursor.decode(query.after());
+        List<Product> hits = query.hasQuery() ? search(query.q()) : null;
+        FacetCounts facets = facetIndex.count(hits, query.filter());
+        if (!query.filter().isEmpty() || query.sort() != ProductSort.NAME) {
+            return facetIndex.page(hits, query.filter(), query.sort(), cursor, query.size(), facets);
+        }
+        if (hits != null) {
+            int from = (cursor == null || cursor.isSeek()) ? 0 : Math.min(cursor.offset(), hits.size());
+            int to = Math.min(from + query.size(), hits.size());
+            String next = to < hits.size() ? ProductCursor.atOffset(to).encode() : null;
+            return new ProductPage(List.copyOf(hits.subList(from, to)), next, facets);
+        }
+
+        boolean seek = cursor != null && cursor.seeks(ProductSort.NAME);
+        List<Product> rows;
+        if (catalogEngine.isServing()) {
+            rows = catalogEngine.byNameAfter(seek ? cursor.name() : null, seek ? cursor.id() : 0, query.size() + 1);
+        } else {
+            Limit limit = Limit.of(query.size() + 1);
+            rows = seek
+                    ? productRepository.findPageAfter(cursor.name(), cursor.id(), limit)
+                    : productRepository.findAllByOrderByNameAscIdAsc(limit);
+        }
+        if (rows.size() <= query.size()) {
+            return new ProductPage(rows, null, facets);
+        }
+        List<Product> items = rows.subList(0, query.size());
+        return new ProductPage(List.copyOf(items), ProductCursor.after(items.get(items.size() - 1)).encode(), facets);
+    }
+
+    @Transactional(readOnly = true)
+    public void forEachProduct(Optional<String> q, Consumer<Product> action) {
+        if (q.isPresent() && !q.get().isBlank()) {
+            search(q.get().trim()).forEach(action);
+            return;
+        }
+        if (catalogEngine.isServing()) {
+            catalogEngine.byName().forEach(action);
+            return;
+        }
+        try (Stream<Product> products = productRepository.streamAllOrderedByName()) {
+            products.forEach(product -> {
+                action.accept(product);
+                entityManager.detach(product);
+            });
+        }
+    }
+
+    @Timed("babyshop.catalog.get")
+    @Cacheable(cacheNames = CatalogCacheConfig.PRODUCTS, condition = "!@catalogEngine.serving")
     public Product getById(long id) {
-        return productRepository.findById(id)
-                .orElseThrow(() -> new IllegalArgumentException("Product not found: " + id));
+        Optional<Product> product = catalogEngine.isServing() ? catalogEngine.find(id) : productRepository.findById(id);
+        return product.orElseThrow(() -> new IllegalArgumentException("Product not found: " + id));
     }
-}
 
+    @TransactionalEventListener(fallbackExecution = true)
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CatalogCacheConfig.PRODUCTS, key = "#event.productId()"),
+            @CacheEvict(cacheNames = CatalogCacheConfig.PRODUCT_LISTINGS, allEntries = true)
+    })
+    public void onProductChanged(ProductChangedEvent event) {
+    }
+
+    private List<Product> search(String query) {
+        return searchIndex.isReady() ? searchIndex.search(query) : productRepository.search(query);
+    }
+}
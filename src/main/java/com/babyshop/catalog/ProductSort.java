@@ -0,0 +1,22 @@
+package com.babyshop.catalog;
+
+/**
+ * Listing orders for {@code /products}. {@link #NAME} is the default; for a search it keeps the
+ * results in relevance order. {@link #NEWEST} follows product ids, which are assigned in insertion order.
+ */
+public enum ProductSort {
+    NAME("Name"),
+    PRICE_ASC("Price: low to high"),
+    PRICE_DESC("Price: high to low"),
+    NEWEST("Newest");
+
+    private final String label;
+
+    ProductSort(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+}
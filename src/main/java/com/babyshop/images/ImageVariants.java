@@ -0,0 +1,246 @@
+package com.babyshop.images;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.UriUtils;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.stream.Collectors;
+
+/**
+ * Resized JPEG variants of the catalog images under {@code static/images}, built at startup into
+ * {@code app.images.directory} and served from {@code /img/} with immutable cache headers (see
+ * {@code StaticAssets}). Variant file names end in a hash of their bytes, so a changed image always
+ * gets a new URL. A manifest keyed by source hash, width and quality lets later starts reuse the
+ * variants instead of re-encoding them; it also records the width each variant was encoded at, which
+ * is smaller than the configured one for sources narrower than the first width.
+ * <p>
+ * Templates call it as {@code @images} to turn a product's {@code imageUrl} into a {@code src} and
+ * {@code srcset}; images without variants keep their original URL.
+ */
+@Component("images")
+public class ImageVariants {
+    private static final Logger log = LoggerFactory.getLogger(ImageVariants.class);
+    private static final String SOURCES = "classpath:/static/images/*";
+    private static final String SOURCE_PREFIX = "/images/";
+    public static final String URL_PREFIX = "/img/";
+    private static final String MANIFEST = "manifest.properties";
+
+    private final Path directory;
+    private final int[] widths;
+    private final float quality;
+    private final Map<String, List<Variant>> variants = new HashMap<>();
+
+    public ImageVariants(@Value("${app.images.directory:data/images}") Path directory,
+                         @Value("${app.images.widths:360,720,1080}") int[] widths,
+                         @Value("${app.images.jpeg-quality:0.8}") float quality) {
+        this.directory = directory;
+        this.widths = widths.clone();
+        this.quality = quality;
+        ImageIO.scanForPlugins();
+        build();
+    }
+
+    public Path directory() {
+        return directory;
+    }
+
+    /**
+     * The smallest variant at least {@code width} pixels wide, or the largest one there is.
+     */
+    public String src(String imageUrl, int width) {
+        List<Variant> available = lookup(imageUrl);
+        if (available == null) {
+            return imageUrl;
+        }
+        for (Variant variant : available) {
+            if (variant.width() >= width) {
+                return variant.url();
+            }
+        }
+        return available.get(available.size() - 1).url();
+    }
+
+    public String srcset(String imageUrl) {
+        List<Variant> available = lookup(imageUrl);
+        if (available == null) {
+            return null;
+        }
+        return available.stream().map(v -> v.url() + " " + v.width() + "w").collect(Collectors.joining(", "));
+    }
+
+    private List<Variant> lookup(String imageUrl) {
+        if (imageUrl == null) {
+            return null;
+        }
+        List<Variant> available = variants.get(UriUtils.decode(imageUrl, StandardCharsets.UTF_8));
+        return available == null || available.isEmpty() ? null : available;
+    }
+
+    private void build() {
+        try {
+            Files.createDirectories(directory);
+            Properties manifest = new Properties();
+            Path manifestFile = directory.resolve(MANIFEST);
+            if (Files.exists(manifestFile)) {
+                try (InputStream in = Files.newInputStream(manifestFile)) {
+                    manifest.load(in);
+                }
+            }
+            int encoded = 0;
+            for (Resource resource : new PathMatchingResourcePatternResolver().getResources(SOURCES)) {
+                String filename = resource.getFilename();
+                if (filename == null) {
+                    continue;
+                }
+                try {
+                    encoded += build(filename, resource.getContentAsByteArray(), manifest);
+                } catch (UnsupportedImageException ex) {
+                    log.info("No variants for {} ({}); serving the original", filename, ex.getMessage());
+                } catch (IOException | RuntimeException ex) {
+                    log.warn("Could not build variants of {}; serving the original", filename, ex);
+                }
+            }
+            if (encoded > 0) {
+                Path temp = Files.createTempFile(directory, MANIFEST, ".tmp");
+                try (OutputStream out = Files.newOutputStream(temp)) {
+                    manifest.store(out, null);
+                }
+                Files.move(temp, manifestFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            }
+            log.info("Image variants ready for {} images ({} encoded)", variants.size(), encoded);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private int build(String filename, byte[] source, Properties manifest) throws IOException {
+        String sourceHash = hash(source);
+        BufferedImage image = null;
+        int encoded = 0;
+        List<Variant> built = new ArrayList<>(widths.length);
+        for (int width : widths) {
+            String key = sourceHash + "-" + width + "-" + quality;
+            String entry = manifest.getProperty(key);
+            // A skipped width only ends the list once a smaller variant exists; the widths may have changed since.
+            if (entry != null && entry.isEmpty() && !built.isEmpty()) {
+                break;
+            }
+            // Entries are "<encoded width>:<file name>".
+            int separator = entry == null || entry.isEmpty() ? -1 : entry.indexOf(':');
+            String name = separator < 0 ? null : entry.substring(separator + 1);
+            int encodedWidth = separator < 0 ? 0 : Integer.parseInt(entry.substring(0, separator));
+            if (name == null || !Files.exists(directory.resolve(name))) {
+                if (image == null) {
+                    image = ImageIO.read(new ByteArrayInputStream(source));
+                    if (image == null) {
+                        throw new UnsupportedImageException("no ImageIO reader for this format");
+                    }
+                }
+                if (width > image.getWidth() && !built.isEmpty()) {
+                    // Never upscale; remember that this width is skipped so later starts need not decode.
+                    manifest.setProperty(key, "");
+                    encoded++;
+                    break;
+                }
+                encodedWidth = Math.min(width, image.getWidth());
+                byte[] jpeg = encode(resize(image, encodedWidth));
+                name = slug(filename) + "-" + encodedWidth + "-" + hash(jpeg).substring(0, 12) + ".jpg";
+                Files.write(directory.resolve(name), jpeg);
+                manifest.setProperty(key, encodedWidth + ":" + name);
+                encoded++;
+            }
+            built.add(new Variant(URL_PREFIX + name, encodedWidth));
+        }
+        if (!built.isEmpty()) {
+            variants.put(SOURCE_PREFIX + filename, List.copyOf(built));
+        }
+        return encoded;
+    }
+
+    private static BufferedImage resize(BufferedImage source, int width) {
+        BufferedImage current = source;
+        int targetHeight = Math.max(1, Math.round((float) source.getHeight() * width / source.getWidth()));
+        do {
+            int w = Math.max(width, current.getWidth() / 2);
+            int h = w == width ? targetHeight : Math.max(targetHeight, current.getHeight() / 2);
+            BufferedImage step = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = step.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(current, 0, 0, w, h, null);
+            g.dispose();
+            current = step;
+        } while (current.getWidth() > width);
+        return current;
+    }
+
+    private byte[] encode(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ImageOutputStream out = ImageIO.createImageOutputStream(bytes)) {
+            writer.setOutput(out);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality);
+            param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return bytes.toByteArray();
+    }
+
+    private static String hash(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static String slug(String filename) {
+        String base = filename.contains(".") ? filename.substring(0, filename.lastIndexOf('.')) : filename;
+        String slug = base.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]+", "-").replaceAll("(^-|-$)", "");
+        return slug.isEmpty() ? "image" : slug;
+    }
+
+    private record Variant(String url, int width) {
+    }
+
+    private static final class UnsupportedImageException extends IOException {
+        UnsupportedImageException(String message) {
+            super(message);
+        }
+    }
+}
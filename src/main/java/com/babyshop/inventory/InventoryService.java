@@ -0,0 +1,276 @@
+package com.babyshop.inventory;
+
+import com.babyshop.catalog.Product;
+import com.babyshop.catalog.ProductChangedEvent;
+import com.babyshop.catalog.ProductRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stock levels served from memory. Checkouts reserve units against per-SKU {@link StockCounter}s;
+ * a reservation is confirmed once its order is persisted, released if persisting fails, and expired
+ * by a timer if neither happens within {@code reservation-ttl}. Confirmed sales are written back to
+ * {@code products.stock_quantity} every {@code reconcile-interval} and on shutdown, with plain JDBC so
+ * that the catalog's caches and indexes are not churned by every sale. Only a product that sells out
+ * is written through JPA, which announces the change to the catalog.
+ * <p>
+ * The order writers ({@code OrderService}, {@code OrderIntakeService}, {@code GroupCommitOrderWriter})
+ * depend on this service, so they drain before {@link #stop()} writes back the last sales.
+ */
+@Service
+public class InventoryService {
+    private static final Logger log = LoggerFactory.getLogger(InventoryService.class);
+
+    private final ProductRepository productRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int stripes;
+    private final int inflateAfter;
+    private final Duration reservationTtl;
+    private final Duration reconcileInterval;
+    private final Map<Long, Sku> skus = new ConcurrentHashMap<>();
+    private final Map<Long, Reservation> reservations = new ConcurrentHashMap<>();
+    private ScheduledExecutorService scheduler;
+
+    public InventoryService(ProductRepository productRepository,
+                            JdbcTemplate jdbcTemplate,
+                            TransactionTemplate transactionTemplate,
+                            @Value("${app.inventory.stripes:0}") int stripes,
+                            @Value("${app.inventory.inflate-after:32}") int inflateAfter,
+                            @Value("${app.inventory.reservation-ttl:15m}") Duration reservationTtl,
+                            @Value("${app.inventory.reconcile-interval:5s}") Duration reconcileInterval) {
+        this.productRepository = productRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.stripes = stripes > 0 ? stripes : Runtime.getRuntime().availableProcessors();
+        this.inflateAfter = inflateAfter;
+        this.reservationTtl = reservationTtl;
+        this.reconcileInterval = reconcileInterval;
+    }
+
+    @PostConstruct
+    void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "inventory-reconciler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::expireReservations, 1, 1, TimeUnit.SECONDS);
+        scheduler.scheduleWithFixedDelay(this::reconcile, reconcileInterval.toMillis(), reconcileInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Writes back the sales confirmed since the last pass, including those of orders drained at shutdown.
+     * Nothing is announced: the listeners are being destroyed along with their in-memory state.
+     */
+    @PreDestroy
+    void stop() throws InterruptedException {
+        scheduler.shutdown();
+        scheduler.awaitTermination(10, TimeUnit.SECONDS);
+        reconcile(false);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        for (Product product : productRepository.findAll()) {
+            skus.putIfAbsent(product.getId(), newSku(product));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.removed()) {
+            skus.remove(event.productId());
+            return;
+        }
+        Sku sku = skus.get(event.productId());
+        if (sku == null) {
+            return;
+        }
+        synchronized (sku) {
+            long delta = event.product().getStockQuantity() - sku.onHand;
+            sku.onHand = event.product().getStockQuantity();
+            if (delta > 0) {
+                sku.available.put(delta);
+            } else if (delta < 0) {
+                sku.available.takeUpTo(-delta);
+            }
+        }
+    }
+
+    public long available(long productId) {
+        return sku(productId).available.available();
+    }
+
+    /**
+     * Reserves every quantity or none of them.
+     *
+     * @throws OutOfStockException naming the first product that could not be reserved
+     */
+    public void reserve(long orderId, Map<Long, Integer> quantities) {
+        // Resolve every product first, so an unknown one fails the order before anything is taken.
+        List<Map.Entry<Long, Integer>> lines = new ArrayList<>(quantities.entrySet());
+        List<Sku> lineSkus = new ArrayList<>(lines.size());
+        for (Map.Entry<Long, Integer> line : lines) {
+            lineSkus.add(sku(line.getKey()));
+        }
+        for (int i = 0; i < lines.size(); i++) {
+            Sku sku = lineSkus.get(i);
+            if (!sku.available.tryTake(lines.get(i).getValue())) {
+                for (int j = 0; j < i; j++) {
+                    lineSkus.get(j).available.put(lines.get(j).getValue());
+                }
+                throw new OutOfStockException(lines.get(i).getKey(), sku.available.available());
+            }
+        }
+        reservations.put(orderId, new Reservation(Map.copyOf(quantities), System.nanoTime() + reservationTtl.toNanos()));
+    }
+
+    /**
+     * Turns the order's reservation into a sale. An order without a live reservation (it expired,
+     * or the order was replayed after a restart) takes whatever stock is left instead.
+     */
+    public void confirm(long orderId, Map<Long, Integer> quantities) {
+        Reservation reservation = reservations.remove(orderId);
+        quantities.forEach((productId, quantity) -> {
+            Sku sku = sku(productId);
+            if (reservation == null) {
+                sku.available.takeUpTo(quantity);
+            }
+            sku.sold.addAndGet(quantity);
+        });
+    }
+
+    public void release(long orderId) {
+        Reservation reservation = reservations.remove(orderId);
+        if (reservation != null) {
+            putBack(reservation);
+        }
+    }
+
+    void expireReservations() {
+        long now = System.nanoTime();
+        reservations.forEach((orderId, reservation) -> {
+            if (now - reservation.expiresAt() >= 0 && reservations.remove(orderId, reservation)) {
+                log.info("Reservation for order {} expired", orderId);
+                putBack(reservation);
+            }
+        });
+    }
+
+    void reconcile() {
+        reconcile(true);
+    }
+
+    private void reconcile(boolean announceSellOuts) {
+        Map<Long, Long> sold = new HashMap<>();
+        skus.forEach((productId, sku) -> {
+            long units = sku.sold.getAndSet(0);
+            if (units > 0) {
+                sold.put(productId, units);
+            }
+        });
+        if (sold.isEmpty()) {
+            return;
+        }
+        Map<Long, Long> previousOnHand = new HashMap<>();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                List<Object[]> updates = new ArrayList<>();
+                List<Long> flipped = new ArrayList<>();
+                String ids = String.join(",", Collections.nCopies(sold.size(), "?"));
+                jdbcTemplate.query("select id, stock_quantity, in_stock from products where id in (" + ids
+                        + ") for update", rs -> {
+                    long productId = rs.getLong(1);
+                    int remaining = (int) Math.max(0, rs.getInt(2) - sold.get(productId));
+                    if (announceSellOuts && rs.getBoolean(3) != remaining > 0) {
+                        flipped.add(productId);
+                    } else {
+                        updates.add(new Object[]{remaining, remaining > 0, productId});
+                    }
+                    Sku sku = skus.get(productId);
+                    if (sku != null) {
+                        synchronized (sku) {
+                            previousOnHand.put(productId, sku.onHand);
+                            sku.onHand = remaining;
+                        }
+                    }
+                }, sold.keySet().toArray());
+                jdbcTemplate.batchUpdate("update products set stock_quantity = ?, in_stock = ? where id = ?", updates);
+                for (Product product : productRepository.findAllById(flipped)) {
+                    product.adjustStock((int) -sold.get(product.getId()));
+                }
+            });
+        } catch (RuntimeException ex) {
+            log.warn("Could not write {} stock changes back; retrying on the next pass", sold.size(), ex);
+            sold.forEach((productId, units) -> {
+                Sku sku = skus.get(productId);
+                if (sku != null) {
+                    synchronized (sku) {
+                        sku.onHand = previousOnHand.getOrDefault(productId, sku.onHand);
+                    }
+                    sku.sold.addAndGet(units);
+                }
+            });
+        }
+    }
+
+    private void putBack(Reservation reservation) {
+        reservation.quantities().forEach((productId, quantity) -> {
+            Sku sku = skus.get(productId);
+            if (sku != null) {
+                sku.available.put(quantity);
+            }
+        });
+    }
+
+    private Sku sku(long productId) {
+        Sku sku = skus.get(productId);
+        if (sku != null) {
+            return sku;
+        }
+        Product product = productRepository.findById(productId)
+                .orElseThrow(() -> new IllegalArgumentException("Product not found: " + productId));
+        return skus.computeIfAbsent(productId, id -> newSku(product));
+    }
+
+    private Sku newSku(Product product) {
+        return new Sku(new StockCounter(product.getStockQuantity(), stripes, inflateAfter), product.getStockQuantity());
+    }
+
+    private record Reservation(Map<Long, Integer> quantities, long expiresAt) {
+    }
+
+    private static final class Sku {
+        private final StockCounter available;
+        private final AtomicLong sold = new AtomicLong();
+        private long onHand;
+
+        Sku(StockCounter available, long onHand) {
+            this.available = available;
+            this.onHand = onHand;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.babyshop.inventory;
+
+public class OutOfStockException extends IllegalStateException {
+    private final long productId;
+    private final long available;
+
+    public OutOfStockException(long productId, long available) {
+        super("Only " + available + " left in stock for product " + productId);
+        this.productId = productId;
+        this.available = available;
+    }
+
+    public long getProductId() {
+        return productId;
+    }
+
+    public long getAvailable() {
+        return available;
+    }
+}
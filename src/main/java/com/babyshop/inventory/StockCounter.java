@@ -0,0 +1,147 @@
+package com.babyshop.inventory;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Available units of one SKU. A counter starts as a single CAS cell; once it sees enough CAS
+ * contention it is split into cache-line padded stripes that each hold part of the stock, so
+ * concurrent checkouts of a hot SKU mostly touch different cache lines. With {@code inflateAfter}
+ * of zero the counter is striped from the start.
+ * <p>
+ * A take never drives a stripe below zero. When no single stripe can satisfy it, the stripes are
+ * drained and rebalanced under the counter's monitor, so the total is never oversold.
+ */
+final class StockCounter {
+    private static final int PADDING = 8;
+    private static final long RETIRED = Long.MIN_VALUE;
+
+    private final int maxStripes;
+    private final int inflateAfter;
+    private final AtomicInteger contention = new AtomicInteger();
+    private volatile AtomicLongArray cells;
+
+    StockCounter(long initial, int maxStripes, int inflateAfter) {
+        this.maxStripes = Integer.highestOneBit(Math.max(1, maxStripes));
+        this.inflateAfter = inflateAfter;
+        this.cells = new AtomicLongArray(PADDING);
+        this.cells.set(0, initial);
+        if (inflateAfter <= 0) {
+            inflate();
+        }
+    }
+
+    boolean tryTake(long quantity) {
+        retry:
+        for (;;) {
+            AtomicLongArray c = cells;
+            int stripes = c.length() / PADDING;
+            int start = stripes == 1 ? 0 : ThreadLocalRandom.current().nextInt(stripes);
+            for (int i = 0; i < stripes; i++) {
+                int slot = ((start + i) & (stripes - 1)) * PADDING;
+                for (;;) {
+                    long value = c.get(slot);
+                    if (value == RETIRED) {
+                        continue retry;
+                    }
+                    if (value < quantity) {
+                        break;
+                    }
+                    if (c.compareAndSet(slot, value, value - quantity)) {
+                        return true;
+                    }
+                    contended(stripes);
+                }
+            }
+            return takeSlow(quantity, false) == quantity;
+        }
+    }
+
+    /**
+     * Takes up to {@code quantity} units and returns how many were taken.
+     */
+    long takeUpTo(long quantity) {
+        return takeSlow(quantity, true);
+    }
+
+    void put(long quantity) {
+        for (;;) {
+            AtomicLongArray c = cells;
+            int stripes = c.length() / PADDING;
+            int slot = stripes == 1 ? 0 : ThreadLocalRandom.current().nextInt(stripes) * PADDING;
+            long value = c.get(slot);
+            if (value == RETIRED) {
+                continue;
+            }
+            if (c.compareAndSet(slot, value, value + quantity)) {
+                return;
+            }
+            contended(stripes);
+        }
+    }
+
+    long available() {
+        retry:
+        for (;;) {
+            AtomicLongArray c = cells;
+            long sum = 0;
+            for (int slot = 0; slot < c.length(); slot += PADDING) {
+                long value = c.get(slot);
+                if (value == RETIRED) {
+                    continue retry;
+                }
+                sum += value;
+            }
+            return sum;
+        }
+    }
+
+    int stripes() {
+        return cells.length() / PADDING;
+    }
+
+    private synchronized long takeSlow(long quantity, boolean partial) {
+        AtomicLongArray c = cells;
+        long total = 0;
+        for (int slot = 0; slot < c.length(); slot += PADDING) {
+            total += c.getAndSet(slot, 0);
+        }
+        long taken = total >= quantity ? quantity : (partial ? total : 0);
+        spread(c, total - taken);
+        return taken;
+    }
+
+    private void contended(int stripes) {
+        if (stripes < maxStripes && contention.incrementAndGet() >= inflateAfter) {
+            inflate();
+        }
+    }
+
+    private synchronized void inflate() {
+        AtomicLongArray old = cells;
+        if (old.length() / PADDING >= maxStripes) {
+            return;
+        }
+        AtomicLongArray inflated = new AtomicLongArray(maxStripes * PADDING);
+        cells = inflated;
+        long total = 0;
+        for (int slot = 0; slot < old.length(); slot += PADDING) {
+            total += old.getAndSet(slot, RETIRED);
+        }
+        spread(inflated, total);
+        contention.set(0);
+    }
+
+    private static void spread(AtomicLongArray c, long units) {
+        int stripes = c.length() / PADDING;
+        long share = units / stripes;
+        long remainder = units % stripes;
+        for (int i = 0; i < stripes; i++) {
+            long add = share + (i < remainder ? 1 : 0);
+            if (add != 0) {
+                c.getAndAdd(i * PADDING, add);
+            }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.babyshop.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.ModelAndView;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times view rendering ({@code babyshop.view.render}, tagged with the view name): the span between
+ * the handler returning and the request completing, which for template views is the render.
+ */
+class ViewRenderTimer implements HandlerInterceptor {
+    private static final String STARTED = ViewRenderTimer.class.getName() + ".started";
+    private static final String VIEW = ViewRenderTimer.class.getName() + ".view";
+
+    private final MeterRegistry meterRegistry;
+
+    ViewRenderTimer(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler,
+                           ModelAndView modelAndView) {
+        if (modelAndView == null || modelAndView.getViewName() == null || modelAndView.getViewName().startsWith("redirect:")) {
+            return;
+        }
+        request.setAttribute(VIEW, modelAndView.getViewName());
+        request.setAttribute(STARTED, System.nanoTime());
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        if (request.getAttribute(STARTED) instanceof Long started) {
+            Timer.builder("babyshop.view.render")
+                    .description("Template rendering time")
+                    .tag("view", (String) request.getAttribute(VIEW))
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+}
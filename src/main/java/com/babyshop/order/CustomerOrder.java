@@ -3,11 +3,14 @@ package com.babyshop.order;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import org.springframework.data.domain.Persistable;
 
 import java.math.BigDecimal;
 import java.time.Instant;
@@ -15,12 +18,20 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "orders")
-public class CustomerOrder {
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_user_created_id", columnList = "user_id, created_at, id"),
+        @Index(name = "idx_orders_created_id", columnList = "created_at, id")
+})
+public class CustomerOrder implements Persistable<Long> {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    /**
+     * The account that placed the order while signed in; {@code null} for guest checkouts, which are
+     * never attached to an account afterwards.
+     */
+    private Long userId;
+
     @Column(nullable = false)
     private Instant createdAt;
 
@@ -45,10 +56,16 @@ public class CustomerOrder {
     @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<OrderItem> items = new ArrayList<>();
 
+    @Transient
+    private boolean persisted;
+
     protected CustomerOrder() {
     }
 
-    public CustomerOrder(Instant createdAt, String fullName, String email, String address, String city, String postalCode, BigDecimal total) {
+    public CustomerOrder(long id, Long userId, Instant createdAt, String fullName, String email, String address,
+                         String city, String postalCode, BigDecimal total) {
+        this.id = id;
+        this.userId = userId;
         this.createdAt = createdAt;
         this.fullName = fullName;
         this.email = email;
@@ -63,6 +80,18 @@ public class CustomerOrder {
         item.setOrder(this);
     }
 
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        persisted = true;
+    }
+
+    @Override
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    @Override
     public Long getId() {
         return id;
     }
@@ -1,7 +1,41 @@
 package com.babyshop.order;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 
 public interface CustomerOrderRepository extends JpaRepository<CustomerOrder, Long> {
-}
 
+    @Query("""
+            select new com.babyshop.order.OrderSummary$Header(o.id, o.createdAt, o.total)
+            from CustomerOrder o
+            where o.userId = :userId
+            order by o.createdAt desc, o.id desc
+            """)
+    List<OrderSummary.Header> findNewestHeaders(@Param("userId") long userId, Limit limit);
+
+    @Query("""
+            select new com.babyshop.order.OrderSummary$Header(o.id, o.createdAt, o.total)
+            from CustomerOrder o
+            where o.userId = :userId
+              and (o.createdAt < :createdAt or (o.createdAt = :createdAt and o.id < :id))
+            order by o.createdAt desc, o.id desc
+            """)
+    List<OrderSummary.Header> findHeadersBefore(@Param("userId") long userId,
+                                                @Param("createdAt") Instant createdAt,
+                                                @Param("id") long id,
+                                                Limit limit);
+
+    @Query("""
+            select new com.babyshop.order.OrderSummary$Line(i.order.id, i.productName, i.unitPrice, i.quantity)
+            from OrderItem i
+            where i.order.id in :orderIds
+            order by i.id
+            """)
+    List<OrderSummary.Line> findLines(@Param("orderIds") Collection<Long> orderIds);
+}
@@ -0,0 +1,194 @@
+package com.babyshop.order;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Persists orders submitted by concurrent checkouts in shared transactions: the writer thread takes
+ * the first waiting order, gathers whatever else arrives within {@code max-wait} (up to
+ * {@code max-batch} orders), and commits them together as one JDBC batch. If the group fails, each
+ * order is retried in its own transaction so one bad order cannot fail its neighbours. Every attempt
+ * builds fresh entities from the {@link PendingOrder}, because a rolled-back persist leaves the old
+ * ones marked persisted and holding sequence-assigned item ids.
+ * <p>
+ * Depends on the inventory so that the orders drained by {@link #stop()} are written before the
+ * inventory writes back its last sales.
+ */
+@Component
+@DependsOn("inventoryService")
+public class GroupCommitOrderWriter {
+    private static final Logger log = LoggerFactory.getLogger(GroupCommitOrderWriter.class);
+
+    private final CustomerOrderRepository customerOrderRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int maxBatch;
+    private final Duration maxWait;
+    private final Duration timeout;
+    private final BlockingQueue<PendingWrite> queue = new LinkedBlockingQueue<>();
+    private final Object enqueueLock = new Object();
+    private volatile boolean running;
+    private Thread writerThread;
+
+    public GroupCommitOrderWriter(CustomerOrderRepository customerOrderRepository,
+                                  TransactionTemplate transactionTemplate,
+                                  @Value("${app.orders.group-commit.enabled:false}") boolean enabled,
+                                  @Value("${app.orders.group-commit.max-batch:64}") int maxBatch,
+                                  @Value("${app.orders.group-commit.max-wait:5ms}") Duration maxWait,
+                                  @Value("${app.orders.group-commit.timeout:30s}") Duration timeout) {
+        this.customerOrderRepository = customerOrderRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.maxBatch = maxBatch;
+        this.maxWait = maxWait;
+        this.timeout = timeout;
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        writerThread = new Thread(this::run, "order-group-commit");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (writerThread == null) {
+            return;
+        }
+        // Once this returns, write() can no longer enqueue, so the drain below sees every queued order.
+        synchronized (enqueueLock) {
+            running = false;
+        }
+        writerThread.interrupt();
+        writerThread.join(TimeUnit.SECONDS.toMillis(10));
+        List<PendingWrite> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            commit(remaining);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public CustomerOrder write(PendingOrder order) {
+        PendingWrite pending = new PendingWrite(order, new CompletableFuture<>());
+        boolean queued;
+        synchronized (enqueueLock) {
+            queued = running && queue.add(pending);
+        }
+        if (!queued) {
+            return customerOrderRepository.save(order.toCustomerOrder());
+        }
+        try {
+            return pending.result().get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            if (queue.remove(pending)) {
+                throw new IllegalStateException("Order " + order.id() + " was not group-committed within "
+                        + timeout, ex);
+            }
+            log.warn("Group commit of order {} still in flight after {}; waiting for its outcome", order.id(), timeout);
+            return awaitInFlight(pending);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            if (queue.remove(pending)) {
+                throw new IllegalStateException("Interrupted while waiting for the group commit", ex);
+            }
+            return awaitInFlight(pending);
+        } catch (ExecutionException ex) {
+            throw failure(ex.getCause());
+        }
+    }
+
+    /**
+     * Waits, uninterruptibly, for an order whose group the writer thread has taken. Failing it early
+     * would make the caller release its stock although the group may still commit it.
+     */
+    private static CustomerOrder awaitInFlight(PendingWrite pending) {
+        try {
+            return pending.result().join();
+        } catch (CompletionException ex) {
+            throw failure(ex.getCause());
+        }
+    }
+
+    private static RuntimeException failure(Throwable cause) {
+        return cause instanceof RuntimeException runtime ? runtime : new IllegalStateException(cause);
+    }
+
+    private void run() {
+        List<PendingWrite> group = new ArrayList<>(maxBatch);
+        while (running) {
+            try {
+                group.add(queue.take());
+                long deadline = System.nanoTime() + maxWait.toNanos();
+                while (group.size() < maxBatch) {
+                    PendingWrite next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    group.add(next);
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            if (!group.isEmpty()) {
+                try {
+                    commit(group);
+                } finally {
+                    // Only reached with open results if commit died with an Error, which rolled it back.
+                    for (PendingWrite pending : group) {
+                        pending.result().completeExceptionally(new IllegalStateException("Group commit aborted"));
+                    }
+                    group.clear();
+                }
+            }
+        }
+    }
+
+    private void commit(List<PendingWrite> group) {
+        try {
+            List<CustomerOrder> saved = transactionTemplate.execute(status ->
+                    customerOrderRepository.saveAll(group.stream().map(pending -> pending.order().toCustomerOrder())
+                            .toList()));
+            for (int i = 0; i < group.size(); i++) {
+                group.get(i).result().complete(saved.get(i));
+            }
+        } catch (RuntimeException groupFailure) {
+            log.warn("Group commit of {} orders failed, retrying individually", group.size(), groupFailure);
+            for (PendingWrite pending : group) {
+                try {
+                    pending.result().complete(customerOrderRepository.save(pending.order().toCustomerOrder()));
+                } catch (RuntimeException ex) {
+                    pending.result().completeExceptionally(ex);
+                }
+            }
+        }
+    }
+
+    private record PendingWrite(PendingOrder order, CompletableFuture<CustomerOrder> result) {
+    }
+}
@@ -0,0 +1,36 @@
+package com.babyshop.order;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Opaque {@code after} token for order history pages: the {@code (createdAt, id)} of the last order
+ * shown, newest first.
+ */
+record OrderCursor(Instant createdAt, long id) {
+
+    static OrderCursor after(OrderSummary.Header header) {
+        return new OrderCursor(header.createdAt(), header.id());
+    }
+
+    static OrderCursor decode(String token) {
+        if (token == null) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\.", 3);
+            return new OrderCursor(Instant.ofEpochSecond(Long.parseLong(parts[0]), Long.parseLong(parts[1])),
+                    Long.parseLong(parts[2]));
+        } catch (RuntimeException ignored) {
+            // A malformed cursor restarts from the newest order.
+        }
+        return null;
+    }
+
+    String encode() {
+        String raw = createdAt.getEpochSecond() + "." + createdAt.getNano() + "." + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,10 @@
+package com.babyshop.order;
+
+import java.util.List;
+
+public record OrderHistoryPage(List<OrderSummary> orders, String nextCursor) {
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+}
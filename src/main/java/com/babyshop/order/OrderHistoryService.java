@@ -0,0 +1,54 @@
+package com.babyshop.order;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An account's past orders, newest first: the orders placed while signed in to it. Each page is two
+ * queries whatever the page size or the number of orders: one seek on {@code (user_id, created_at, id)}
+ * for the order headers and one {@code in} query for all their lines.
+ */
+@Service
+public class OrderHistoryService {
+    private final CustomerOrderRepository customerOrderRepository;
+
+    public OrderHistoryService(CustomerOrderRepository customerOrderRepository) {
+        this.customerOrderRepository = customerOrderRepository;
+    }
+
+    @Transactional(readOnly = true)
+    public OrderHistoryPage page(long userId, String after, int size) {
+        OrderCursor cursor = OrderCursor.decode(after);
+        Limit limit = Limit.of(size + 1);
+        List<OrderSummary.Header> headers = cursor == null
+                ? customerOrderRepository.findNewestHeaders(userId, limit)
+                : customerOrderRepository.findHeadersBefore(userId, cursor.createdAt(), cursor.id(), limit);
+        String next = null;
+        if (headers.size() > size) {
+            headers = headers.subList(0, size);
+            next = OrderCursor.after(headers.get(size - 1)).encode();
+        }
+        if (headers.isEmpty()) {
+            return new OrderHistoryPage(List.of(), null);
+        }
+
+        Map<Long, List<OrderSummary.Line>> lines = new LinkedHashMap<>();
+        for (OrderSummary.Header header : headers) {
+            lines.put(header.id(), new ArrayList<>());
+        }
+        for (OrderSummary.Line line : customerOrderRepository.findLines(lines.keySet())) {
+            lines.get(line.orderId()).add(line);
+        }
+        List<OrderSummary> orders = new ArrayList<>(headers.size());
+        for (OrderSummary.Header header : headers) {
+            orders.add(new OrderSummary(header.id(), header.createdAt(), header.total(), List.copyOf(lines.get(header.id()))));
+        }
+        return new OrderHistoryPage(orders, next);
+    }
+}
@@ -0,0 +1,67 @@
+package com.babyshop.order;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hands out order ids from {@code orders_seq} one block at a time, so an id can be given to a
+ * checkout before its order row exists and the sequence is only hit once per block. The lock is a
+ * {@link ReentrantLock} so a virtual thread waiting for a connection does not pin its carrier.
+ */
+@Component
+public class OrderIdAllocator {
+    static final int BLOCK_SIZE = 50;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ReentrantLock lock = new ReentrantLock();
+    private long next;
+    private long limit;
+
+    public OrderIdAllocator(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    void createSequence() {
+        jdbcTemplate.execute("create sequence if not exists orders_seq start with 1 increment by " + BLOCK_SIZE);
+    }
+
+    public long nextId() {
+        lock.lock();
+        try {
+            if (next >= limit) {
+                long base = jdbcTemplate.queryForObject("select nextval('orders_seq')", Long.class);
+                next = base;
+                limit = base + BLOCK_SIZE;
+            }
+            return next++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Makes sure ids handed out from now on are greater than {@code id}, e.g. after replaying orders
+     * whose ids were allocated before the database was reset.
+     */
+    public void advancePast(long id) {
+        lock.lock();
+        try {
+            if (next > id && next < limit) {
+                return;
+            }
+            long base = jdbcTemplate.queryForObject("select nextval('orders_seq')", Long.class);
+            if (base <= id) {
+                base = id + 1;
+                jdbcTemplate.execute("alter sequence orders_seq restart with " + (base + BLOCK_SIZE));
+            }
+            next = base;
+            limit = base + BLOCK_SIZE;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.babyshop.order;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only, memory-mapped write-ahead log of accepted checkouts.
+ * <p>
+ * Each record is {@code [int length][int crc32][byte type][long orderId][payload]}; a zero length
+ * marks the end of the log. An {@code INTAKE} record carries the encoded {@link PendingOrder} and a
+ * {@code DONE} record marks that order as persisted. When the mapping fills up, the log is rewritten
+ * with only the orders that are still outstanding.
+ * <p>
+ * Writers are serialized with a {@link ReentrantLock} rather than a monitor, because a virtual thread
+ * that blocks in {@code force()} while holding a monitor pins its carrier thread.
+ */
+class OrderIntakeLog implements Closeable {
+    private static final byte INTAKE = 1;
+    private static final byte DONE = 2;
+    private static final int HEADER_BYTES = Integer.BYTES * 2;
+    private static final int BODY_PREFIX_BYTES = 1 + Long.BYTES;
+
+    private final Path path;
+    private final int capacity;
+    private final boolean fsync;
+    private final Map<Long, byte[]> outstanding = new LinkedHashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+
+    private OrderIntakeLog(Path path, int capacity, boolean fsync) {
+        this.path = path;
+        this.capacity = capacity;
+        this.fsync = fsync;
+    }
+
+    static OrderIntakeLog open(Path path, int capacity, boolean fsync) throws IOException {
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        OrderIntakeLog log = new OrderIntakeLog(path, capacity, fsync);
+        log.map(path);
+        log.replay();
+        return log;
+    }
+
+    List<PendingOrder> outstanding() {
+        lock.lock();
+        try {
+            List<PendingOrder> orders = new ArrayList<>(outstanding.size());
+            for (byte[] payload : outstanding.values()) {
+                orders.add(PendingOrder.decode(payload));
+            }
+            return orders;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void append(PendingOrder order) throws IOException {
+        byte[] payload = order.encode();
+        lock.lock();
+        try {
+            write(INTAKE, order.id(), payload);
+            outstanding.put(order.id(), payload);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void markDone(long orderId) throws IOException {
+        lock.lock();
+        try {
+            if (outstanding.remove(orderId) != null) {
+                write(DONE, orderId, new byte[0]);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            if (channel != null) {
+                buffer.force();
+                channel.close();
+                channel = null;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void write(byte type, long orderId, byte[] payload) throws IOException {
+        int recordBytes = HEADER_BYTES + BODY_PREFIX_BYTES + payload.length;
+        if (buffer.remaining() < recordBytes + Integer.BYTES) {
+            compact();
+            if (buffer.remaining() < recordBytes + Integer.BYTES) {
+                throw new IOException("Order intake log is full (" + capacity + " bytes)");
+            }
+        }
+        int start = buffer.position();
+        writeRecord(buffer, type, orderId, payload);
+        if (fsync) {
+            buffer.force(start, recordBytes + Integer.BYTES);
+        }
+    }
+
+    private static void writeRecord(ByteBuffer target, byte type, long orderId, byte[] payload) {
+        ByteBuffer body = ByteBuffer.allocate(BODY_PREFIX_BYTES + payload.length);
+        body.put(type).putLong(orderId).put(payload).flip();
+        CRC32 crc = new CRC32();
+        crc.update(body.duplicate());
+
+        int start = target.position();
+        target.position(start + Integer.BYTES);
+        target.putInt((int) crc.getValue());
+        target.put(body);
+        int end = target.position();
+        if (end + Integer.BYTES <= target.limit()) {
+            target.putInt(end, 0);
+        }
+        target.putInt(start, body.limit());
+    }
+
+    private void replay() {
+        while (buffer.remaining() >= HEADER_BYTES) {
+            int start = buffer.position();
+            int length = buffer.getInt();
+            if (length < BODY_PREFIX_BYTES || length > buffer.remaining() - Integer.BYTES) {
+                buffer.position(start);
+                break;
+            }
+            int checksum = buffer.getInt();
+            byte[] body = new byte[length];
+            buffer.get(body);
+            CRC32 crc = new CRC32();
+            crc.update(body);
+            if ((int) crc.getValue() != checksum) {
+                buffer.position(start);
+                break;
+            }
+            ByteBuffer record = ByteBuffer.wrap(body);
+            byte type = record.get();
+            long orderId = record.getLong();
+            if (type == INTAKE) {
+                byte[] payload = new byte[record.remaining()];
+                record.get(payload);
+                outstanding.put(orderId, payload);
+            } else if (type == DONE) {
+                outstanding.remove(orderId);
+            }
+        }
+    }
+
+    private void compact() throws IOException {
+        Path compacted = path.resolveSibling(path.getFileName() + ".compact");
+        Files.deleteIfExists(compacted);
+        try (FileChannel target = FileChannel.open(compacted,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer mapped = target.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+            for (Map.Entry<Long, byte[]> entry : outstanding.entrySet()) {
+                if (mapped.remaining() < HEADER_BYTES + BODY_PREFIX_BYTES + entry.getValue().length + Integer.BYTES) {
+                    throw new IOException("Outstanding orders do not fit in the order intake log");
+                }
+                writeRecord(mapped, INTAKE, entry.getKey(), entry.getValue());
+            }
+            mapped.force();
+        }
+        channel.close();
+        Files.move(compacted, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        map(path);
+        while (buffer.remaining() >= HEADER_BYTES && buffer.getInt(buffer.position()) != 0) {
+            int length = buffer.getInt(buffer.position());
+            buffer.position(buffer.position() + HEADER_BYTES + length);
+        }
+    }
+
+    private void map(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+    }
+}
@@ -0,0 +1,143 @@
+package com.babyshop.order;
+
+import com.babyshop.cart.Cart;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Accepts checkouts. In async mode a checkout is written to the {@link OrderIntakeLog}, answered with
+ * its order id straight away and persisted by a bounded worker pool; when the pool's queue is full the
+ * request thread persists the order itself. Orders still in the log at startup are replayed.
+ */
+@Service
+public class OrderIntakeService {
+    private static final Logger log = LoggerFactory.getLogger(OrderIntakeService.class);
+
+    private final OrderService orderService;
+    private final CustomerOrderRepository customerOrderRepository;
+    private final OrderIdAllocator orderIdAllocator;
+    private final boolean async;
+    private final Path walPath;
+    private final DataSize walCapacity;
+    private final boolean fsync;
+    private final int workers;
+    private final int queueCapacity;
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+    private final DistributionSummary cartLines;
+    private final DistributionSummary cartUnits;
+    private OrderIntakeLog intakeLog;
+    private ThreadPoolExecutor executor;
+
+    public OrderIntakeService(OrderService orderService,
+                              CustomerOrderRepository customerOrderRepository,
+                              OrderIdAllocator orderIdAllocator,
+                              @Value("${app.orders.intake.async:false}") boolean async,
+                              @Value("${app.orders.intake.wal-path:data/order-intake.wal}") Path walPath,
+                              @Value("${app.orders.intake.wal-capacity:64MB}") DataSize walCapacity,
+                              @Value("${app.orders.intake.fsync:true}") boolean fsync,
+                              @Value("${app.orders.intake.workers:4}") int workers,
+                              @Value("${app.orders.intake.queue-capacity:1000}") int queueCapacity,
+                              MeterRegistry meterRegistry) {
+        this.orderService = orderService;
+        this.customerOrderRepository = customerOrderRepository;
+        this.orderIdAllocator = orderIdAllocator;
+        this.async = async;
+        this.walPath = walPath;
+        this.walCapacity = walCapacity;
+        this.fsync = fsync;
+        this.workers = workers;
+        this.queueCapacity = queueCapacity;
+        this.cartLines = DistributionSummary.builder("babyshop.cart.lines")
+                .description("Distinct products in a cart at checkout")
+                .register(meterRegistry);
+        this.cartUnits = DistributionSummary.builder("babyshop.cart.units")
+                .description("Units in a cart at checkout")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() throws IOException {
+        if (!async) {
+            return;
+        }
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> new Thread(runnable, "order-intake-" + threadCount.incrementAndGet()),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        intakeLog = OrderIntakeLog.open(walPath, (int) walCapacity.toBytes(), fsync);
+
+        List<PendingOrder> outstanding = intakeLog.outstanding();
+        if (!outstanding.isEmpty()) {
+            log.info("Replaying {} unpersisted orders from {}", outstanding.size(), walPath);
+            orderIdAllocator.advancePast(outstanding.stream().mapToLong(PendingOrder::id).max().getAsLong());
+            for (PendingOrder order : outstanding) {
+                pending.add(order.id());
+                executor.execute(() -> persist(order, true));
+            }
+        }
+    }
+
+    @PreDestroy
+    void stop() throws IOException, InterruptedException {
+        if (executor == null) {
+            return;
+        }
+        executor.shutdown();
+        if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+            log.warn("Order intake workers did not finish; remaining orders will be replayed on restart");
+        }
+        intakeLog.close();
+    }
+
+    public long submit(CheckoutForm form, Cart cart, Long userId) {
+        cartLines.record(cart.getItems().size());
+        cartUnits.record(cart.getItemCount());
+        if (!async) {
+            return orderService.placeOrder(form, cart, userId).getId();
+        }
+        PendingOrder order = orderService.prepare(form, cart, userId);
+        try {
+            intakeLog.append(order);
+        } catch (IOException ex) {
+            log.warn("Could not log order {}, placing it synchronously", order.id(), ex);
+            return orderService.persist(order).getId();
+        }
+        pending.add(order.id());
+        executor.execute(() -> persist(order, false));
+        return order.id();
+    }
+
+    public OrderStatus status(long orderId) {
+        return pending.contains(orderId) ? OrderStatus.PENDING : OrderStatus.CONFIRMED;
+    }
+
+    private void persist(PendingOrder order, boolean replayed) {
+        try {
+            if (!replayed || !customerOrderRepository.existsById(order.id())) {
+                orderService.persist(order);
+            }
+            intakeLog.markDone(order.id());
+            pending.remove(order.id());
+        } catch (IOException | RuntimeException ex) {
+            log.error("Could not persist order {}; it stays in the intake log until the next restart", order.id(), ex);
+        }
+    }
+}
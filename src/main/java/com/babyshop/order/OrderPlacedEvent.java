@@ -0,0 +1,7 @@
+package com.babyshop.order;
+
+/**
+ * Published once an order has been persisted, on whichever thread persisted it.
+ */
+public record OrderPlacedEvent(PendingOrder order) {
+}
@@ -1,47 +1,58 @@
 package com.babyshop.order;
 
 import com.babyshop.cart.Cart;
-import com.babyshop.cart.CartItem;
+import com.babyshop.inventory.InventoryService;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
-
-import java.time.Instant;
 
 @Service
 public class OrderService {
     private final CustomerOrderRepository customerOrderRepository;
-
-    public OrderService(CustomerOrderRepository customerOrderRepository) {
+    private final GroupCommitOrderWriter groupCommitOrderWriter;
+    private final OrderIdAllocator orderIdAllocator;
+    private final InventoryService inventoryService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public OrderService(CustomerOrderRepository customerOrderRepository,
+                        GroupCommitOrderWriter groupCommitOrderWriter,
+                        OrderIdAllocator orderIdAllocator,
+                        InventoryService inventoryService,
+                        ApplicationEventPublisher eventPublisher) {
         this.customerOrderRepository = customerOrderRepository;
+        this.groupCommitOrderWriter = groupCommitOrderWriter;
+        this.orderIdAllocator = orderIdAllocator;
+        this.inventoryService = inventoryService;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Timed("babyshop.orders.place")
+    public CustomerOrder placeOrder(CheckoutForm form, Cart cart, Long userId) {
+        return persist(prepare(form, cart, userId));
     }
 
-    @Transactional
-    public CustomerOrder placeOrder(CheckoutForm form, Cart cart) {
+    public PendingOrder prepare(CheckoutForm form, Cart cart, Long userId) {
         if (cart.getItems().isEmpty()) {
             throw new IllegalStateException("Cart is empty");
         }
+        PendingOrder order = PendingOrder.of(orderIdAllocator.nextId(), userId, form, cart);
+        inventoryService.reserve(order.id(), order.quantities());
+        return order;
+    }
 
-        CustomerOrder order = new CustomerOrder(
-                Instant.now(),
-                form.getFullName().trim(),
-                form.getEmail().trim(),
-                form.getAddress().trim(),
-                form.getCity().trim(),
-                form.getPostalCode().trim(),
-                cart.getSubtotal()
-        );
-
-        for (CartItem cartItem : cart.getItems()) {
-            order.addItem(new OrderItem(
-                    cartItem.getProduct().getId(),
-                    cartItem.getProduct().getName(),
-                    cartItem.getProduct().getCategory(),
-                    cartItem.getProduct().getPrice(),
-                    cartItem.getQuantity()
-            ));
+    @Timed("babyshop.orders.persist")
+    public CustomerOrder persist(PendingOrder pendingOrder) {
+        CustomerOrder saved;
+        try {
+            saved = groupCommitOrderWriter.isEnabled()
+                    ? groupCommitOrderWriter.write(pendingOrder)
+                    : customerOrderRepository.save(pendingOrder.toCustomerOrder());
+        } catch (RuntimeException ex) {
+            inventoryService.release(pendingOrder.id());
+            throw ex;
         }
-
-        return customerOrderRepository.save(order);
+        inventoryService.confirm(pendingOrder.id(), pendingOrder.quantities());
+        eventPublisher.publishEvent(new OrderPlacedEvent(pendingOrder));
+        return saved;
     }
 }
-
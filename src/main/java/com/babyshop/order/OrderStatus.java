@@ -0,0 +1,6 @@
+package com.babyshop.order;
+
+public enum OrderStatus {
+    PENDING,
+    CONFIRMED
+}
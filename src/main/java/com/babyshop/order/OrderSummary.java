@@ -0,0 +1,25 @@
+package com.babyshop.order;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Read-only view of a past order for the order history page, built from projections rather than
+ * {@link CustomerOrder} entities.
+ */
+public record OrderSummary(long id, Instant createdAt, BigDecimal total, List<Line> lines) {
+
+    public record Line(long orderId, String productName, BigDecimal unitPrice, int quantity) {
+
+        public BigDecimal lineTotal() {
+            return unitPrice.multiply(BigDecimal.valueOf(quantity));
+        }
+    }
+
+    /**
+     * The order columns selected for a history page, before its lines are attached.
+     */
+    public record Header(long id, Instant createdAt, BigDecimal total) {
+    }
+}
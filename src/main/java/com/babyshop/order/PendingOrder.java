@@ -0,0 +1,138 @@
+package com.babyshop.order;
+
+import com.babyshop.cart.Cart;
+import com.babyshop.cart.CartItem;
+import com.babyshop.catalog.Money;
+import com.babyshop.catalog.ProductCategory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable snapshot of a checkout, taken before the cart is cleared. It is what gets written to the
+ * intake log and later turned into a {@link CustomerOrder}.
+ */
+public record PendingOrder(long id,
+                           Long userId,
+                           Instant createdAt,
+                           String fullName,
+                           String email,
+                           String address,
+                           String city,
+                           String postalCode,
+                           List<Line> lines) {
+
+    public record Line(long productId, String productName, ProductCategory category, long unitPriceCents, int quantity) {
+    }
+
+    /**
+     * @param userId the signed-in account placing the order, or {@code null} for a guest checkout
+     */
+    public static PendingOrder of(long id, Long userId, CheckoutForm form, Cart cart) {
+        List<Line> lines = new ArrayList<>();
+        for (CartItem cartItem : cart.getItems()) {
+            lines.add(new Line(
+                    cartItem.getProduct().getId(),
+                    cartItem.getProduct().getName(),
+                    cartItem.getProduct().getCategory(),
+                    cartItem.getUnitPriceCents(),
+                    cartItem.getQuantity()
+            ));
+        }
+        return new PendingOrder(
+                id,
+                userId,
+                Instant.now(),
+                form.getFullName().trim(),
+                form.getEmail().trim(),
+                form.getAddress().trim(),
+                form.getCity().trim(),
+                form.getPostalCode().trim(),
+                List.copyOf(lines)
+        );
+    }
+
+    public long totalCents() {
+        long total = 0;
+        for (Line line : lines) {
+            total += line.unitPriceCents() * line.quantity();
+        }
+        return total;
+    }
+
+    public Map<Long, Integer> quantities() {
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        for (Line line : lines) {
+            quantities.merge(line.productId(), line.quantity(), Integer::sum);
+        }
+        return quantities;
+    }
+
+    public CustomerOrder toCustomerOrder() {
+        CustomerOrder order = new CustomerOrder(id, userId, createdAt, fullName, email, address, city, postalCode,
+                Money.fromCents(totalCents()));
+        for (Line line : lines) {
+            order.addItem(new OrderItem(line.productId(), line.productName(), line.category(),
+                    Money.fromCents(line.unitPriceCents()), line.quantity()));
+        }
+        return order;
+    }
+
+    byte[] encode() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeLong(id);
+            out.writeLong(userId == null ? 0 : userId);
+            out.writeLong(createdAt.toEpochMilli());
+            out.writeUTF(fullName);
+            out.writeUTF(email);
+            out.writeUTF(address);
+            out.writeUTF(city);
+            out.writeUTF(postalCode);
+            out.writeInt(lines.size());
+            for (Line line : lines) {
+                out.writeLong(line.productId());
+                out.writeUTF(line.productName());
+                // By name, so that reordering ProductCategory never replays a line into another category.
+                out.writeUTF(line.category().name());
+                out.writeLong(line.unitPriceCents());
+                out.writeInt(line.quantity());
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return bytes.toByteArray();
+    }
+
+    static PendingOrder decode(byte[] data) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            long id = in.readLong();
+            long userId = in.readLong();
+            Instant createdAt = Instant.ofEpochMilli(in.readLong());
+            String fullName = in.readUTF();
+            String email = in.readUTF();
+            String address = in.readUTF();
+            String city = in.readUTF();
+            String postalCode = in.readUTF();
+            int lineCount = in.readInt();
+            List<Line> lines = new ArrayList<>(lineCount);
+            for (int i = 0; i < lineCount; i++) {
+                lines.add(new Line(in.readLong(), in.readUTF(), ProductCategory.valueOf(in.readUTF()),
+                        in.readLong(), in.readInt()));
+            }
+            return new PendingOrder(id, userId == 0 ? null : userId, createdAt, fullName, email, address, city,
+                    postalCode, List.copyOf(lines));
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
@@ -0,0 +1,445 @@
+package com.babyshop.recommendations;
+
+import com.babyshop.catalog.Product;
+import com.babyshop.catalog.ProductCategory;
+import com.babyshop.catalog.ProductChangedEvent;
+import com.babyshop.catalog.ProductService;
+import com.babyshop.order.OrderPlacedEvent;
+import com.babyshop.order.PendingOrder;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Related products for the product page, precomputed from what was bought together.
+ * <p>
+ * A sparse co-occurrence matrix counts, for every pair of products, the orders that contained both.
+ * It is loaded from {@code order_items} once the application is ready and extended with every
+ * {@link OrderPlacedEvent}. Every {@code app.recommendations.refresh-interval}, if orders or products
+ * changed, the top {@code app.recommendations.limit} neighbours of every product are recomputed on the
+ * fork/join pool, topped up with the best sellers of the product's category, and published as one
+ * immutable table. {@link #of(long)} is then a single hash lookup. Each list records how many of its
+ * products were really bought together with the product, so the page can tell them from the top-up.
+ * Products with no co-bought neighbours share their category's best sellers, so the table stays small
+ * for large catalogs; products that were never ordered are not best sellers.
+ */
+@Component
+public class RelatedProducts {
+    private static final Logger log = LoggerFactory.getLogger(RelatedProducts.class);
+    private static final long[] NO_IDS = new long[0];
+    private static final Related NONE = new Related(NO_IDS, 0);
+    private static final ProductCategory[] CATEGORIES = ProductCategory.values();
+    // Pairs grow with the square of an order's lines; larger orders only count their first lines.
+    private static final int MAX_LINES_PER_ORDER = 50;
+    private static final int ROWS_PER_TASK = 4096;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ProductService productService;
+    private final boolean enabled;
+    private final int limit;
+    private final Duration refreshInterval;
+    private final Queue<long[]> placed = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean catalogChanged = new AtomicBoolean(true);
+
+    // Only used on the refresh thread.
+    private final Map<Long, LongIntMap> pairs = new HashMap<>();
+    private final LongIntMap orderCounts = new LongIntMap();
+    private Catalog catalog;
+
+    private volatile Table table = new Table(0, 0, new LongIntMap(), new Related[0]);
+    private ScheduledExecutorService scheduler;
+
+    public RelatedProducts(JdbcTemplate jdbcTemplate,
+                           ProductService productService,
+                           @Value("${app.recommendations.enabled:true}") boolean enabled,
+                           @Value("${app.recommendations.limit:4}") int limit,
+                           @Value("${app.recommendations.refresh-interval:5m}") Duration refreshInterval) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.productService = productService;
+        this.enabled = enabled;
+        this.limit = limit;
+        this.refreshInterval = refreshInterval;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "related-products");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.execute(this::load);
+        long interval = refreshInterval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::refreshQuietly, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        if (enabled) {
+            placed.add(event.order().lines().stream().mapToLong(PendingOrder.Line::productId).distinct().toArray());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        catalogChanged.set(true);
+    }
+
+    /**
+     * The products related to {@code productId}, most related first. The ids may be shared and must
+     * not be modified.
+     */
+    public Related of(long productId) {
+        Table current = table;
+        int row = current.index().get(productId);
+        return row == 0 ? NONE : current.rows()[row - 1];
+    }
+
+    /**
+     * The given products, skipping any removed since the table was built.
+     */
+    public List<Product> products(long[] productIds) {
+        List<Product> products = new ArrayList<>(productIds.length);
+        for (long id : productIds) {
+            try {
+                products.add(productService.getById(id));
+            } catch (IllegalArgumentException ignored) {
+                // Removed; the next refresh drops it from the table.
+            }
+        }
+        return products;
+    }
+
+    /**
+     * Changes whenever a new table is published.
+     */
+    public long generation() {
+        return table.generation();
+    }
+
+    public long lastModified() {
+        return table.builtAt();
+    }
+
+    void load() {
+        long started = System.nanoTime();
+        // Orders queued before the scan are part of it. Orders committed while it runs may be counted
+        // twice, which is harmless for rankings.
+        placed.clear();
+        long[] lines = new long[MAX_LINES_PER_ORDER];
+        long[] current = {-1};
+        int[] count = {0};
+        int[] orders = {0};
+        jdbcTemplate.query("select order_id, product_id from order_items order by order_id", rs -> {
+            long orderId = rs.getLong(1);
+            if (orderId != current[0]) {
+                if (count[0] > 0) {
+                    record(lines, count[0]);
+                    orders[0]++;
+                }
+                current[0] = orderId;
+                count[0] = 0;
+            }
+            if (count[0] < lines.length) {
+                lines[count[0]++] = rs.getLong(2);
+            }
+        });
+        if (count[0] > 0) {
+            record(lines, count[0]);
+            orders[0]++;
+        }
+        refresh(true);
+        log.info("Related products built from {} orders in {} ms", orders[0], (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh(false);
+        } catch (RuntimeException ex) {
+            log.warn("Could not refresh related products", ex);
+        }
+    }
+
+    void refresh(boolean force) {
+        boolean ordersChanged = false;
+        for (long[] order = placed.poll(); order != null; order = placed.poll()) {
+            record(order, order.length);
+            ordersChanged = true;
+        }
+        boolean reloadCatalog = catalogChanged.getAndSet(false) || catalog == null;
+        if (!force && !ordersChanged && !reloadCatalog) {
+            return;
+        }
+        if (reloadCatalog) {
+            catalog = loadCatalog();
+        }
+        Related[] rows = new Related[catalog.ids().length];
+        ForkJoinPool.commonPool().invoke(new RowTask(catalog, bestSellers(catalog), rows, 0, rows.length));
+        // Index entries are 1-based positions in the distinct rows; 0 means no related products.
+        LongIntMap index = new LongIntMap(rows.length);
+        Map<Related, Integer> positions = new IdentityHashMap<>();
+        List<Related> distinct = new ArrayList<>();
+        for (int row = 0; row < rows.length; row++) {
+            if (rows[row].ids().length > 0) {
+                int position = positions.computeIfAbsent(rows[row], ids -> {
+                    distinct.add(ids);
+                    return distinct.size();
+                });
+                index.add(catalog.ids()[row], position);
+            }
+        }
+        table = new Table(table.generation() + 1, System.currentTimeMillis(), index, distinct.toArray(Related[]::new));
+    }
+
+    /**
+     * Counts one order's products: once each in {@code orderCounts}, and once for every ordered pair.
+     */
+    private void record(long[] productIds, int count) {
+        long[] ids = Arrays.copyOf(productIds, Math.min(count, MAX_LINES_PER_ORDER));
+        Arrays.sort(ids);
+        int distinct = 0;
+        for (int i = 0; i < ids.length; i++) {
+            if (i == 0 || ids[i] != ids[i - 1]) {
+                ids[distinct++] = ids[i];
+            }
+        }
+        for (int i = 0; i < distinct; i++) {
+            orderCounts.add(ids[i], 1);
+            if (distinct > 1) {
+                LongIntMap row = pairs.computeIfAbsent(ids[i], id -> new LongIntMap());
+                for (int j = 0; j < distinct; j++) {
+                    if (j != i) {
+                        row.add(ids[j], 1);
+                    }
+                }
+            }
+        }
+    }
+
+    private Catalog loadCatalog() {
+        long[][] ids = {new long[1024]};
+        byte[][] categories = {new byte[1024]};
+        int[] size = {0};
+        jdbcTemplate.query("select id, category from products order by id", rs -> {
+            if (size[0] == ids[0].length) {
+                ids[0] = Arrays.copyOf(ids[0], size[0] * 2);
+                categories[0] = Arrays.copyOf(categories[0], size[0] * 2);
+            }
+            ids[0][size[0]] = rs.getLong(1);
+            categories[0][size[0]] = (byte) ProductCategory.valueOf(rs.getString(2)).ordinal();
+            size[0]++;
+        });
+        return new Catalog(Arrays.copyOf(ids[0], size[0]), Arrays.copyOf(categories[0], size[0]));
+    }
+
+    /**
+     * The most ordered products of each category, enough to top up any product's list after skipping
+     * itself and its co-bought products. Products without orders are left out.
+     */
+    private BestSellers bestSellers(Catalog catalog) {
+        TopK[] tops = new TopK[CATEGORIES.length];
+        for (int category = 0; category < tops.length; category++) {
+            tops[category] = new TopK(2 * limit + 1);
+        }
+        for (int row = 0; row < catalog.ids().length; row++) {
+            long id = catalog.ids()[row];
+            int orders = orderCounts.get(id);
+            if (orders > 0) {
+                tops[catalog.categories()[row]].offer(id, orders);
+            }
+        }
+        long[][] candidates = new long[tops.length][];
+        Related[] defaults = new Related[tops.length];
+        for (int category = 0; category < tops.length; category++) {
+            candidates[category] = tops[category].ids();
+            defaults[category] = new Related(
+                    Arrays.copyOf(candidates[category], Math.min(limit, candidates[category].length)), 0);
+        }
+        return new BestSellers(candidates, defaults);
+    }
+
+    private Related related(Catalog catalog, BestSellers bestSellers, int row) {
+        long id = catalog.ids()[row];
+        int category = catalog.categories()[row];
+        LongIntMap coBought = pairs.get(id);
+        if (coBought == null && !contains(bestSellers.defaults()[category].ids(), id)) {
+            return bestSellers.defaults()[category];
+        }
+        TopK top = new TopK(limit);
+        if (coBought != null) {
+            coBought.forEach((other, count) -> {
+                if (catalog.contains(other)) {
+                    top.offer(other, count);
+                }
+            });
+        }
+        int coBoughtCount = top.size();
+        for (long other : bestSellers.candidates()[category]) {
+            if (top.isFull()) {
+                break;
+            }
+            if (other != id && !top.contains(other)) {
+                top.append(other);
+            }
+        }
+        return new Related(top.ids(), coBoughtCount);
+    }
+
+    private static boolean contains(long[] ids, long id) {
+        for (long candidate : ids) {
+            if (candidate == id) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private final class RowTask extends RecursiveAction {
+        private final Catalog catalog;
+        private final BestSellers bestSellers;
+        private final Related[] rows;
+        private final int from;
+        private final int to;
+
+        RowTask(Catalog catalog, BestSellers bestSellers, Related[] rows, int from, int to) {
+            this.catalog = catalog;
+            this.bestSellers = bestSellers;
+            this.rows = rows;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= ROWS_PER_TASK) {
+                for (int row = from; row < to; row++) {
+                    rows[row] = related(catalog, bestSellers, row);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new RowTask(catalog, bestSellers, rows, from, mid), new RowTask(catalog, bestSellers, rows, mid, to));
+        }
+    }
+
+    /**
+     * Up to {@code capacity} ids ordered by count (highest first), then id.
+     */
+    private static final class TopK {
+        private final long[] ids;
+        private final int[] counts;
+        private int size;
+
+        TopK(int capacity) {
+            ids = new long[capacity];
+            counts = new int[capacity];
+        }
+
+        void offer(long id, int count) {
+            int at = size;
+            while (at > 0 && (counts[at - 1] < count || (counts[at - 1] == count && ids[at - 1] > id))) {
+                at--;
+            }
+            if (at == ids.length) {
+                return;
+            }
+            int moved = Math.min(size, ids.length - 1) - at;
+            System.arraycopy(ids, at, ids, at + 1, moved);
+            System.arraycopy(counts, at, counts, at + 1, moved);
+            ids[at] = id;
+            counts[at] = count;
+            size = Math.min(size + 1, ids.length);
+        }
+
+        void append(long id) {
+            ids[size] = id;
+            counts[size] = 0;
+            size++;
+        }
+
+        boolean isFull() {
+            return size == ids.length;
+        }
+
+        int size() {
+            return size;
+        }
+
+        boolean contains(long id) {
+            for (int i = 0; i < size; i++) {
+                if (ids[i] == id) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        long[] ids() {
+            return size == 0 ? NO_IDS : Arrays.copyOf(ids, size);
+        }
+    }
+
+    private record Catalog(long[] ids, byte[] categories) {
+
+        boolean contains(long id) {
+            return Arrays.binarySearch(ids, id) >= 0;
+        }
+    }
+
+    /**
+     * Per category, the best sellers to top up from ({@code candidates}) and the shared list for
+     * products that have no co-bought neighbours and are not among them ({@code defaults}).
+     */
+    private record BestSellers(long[][] candidates, Related[] defaults) {
+    }
+
+    private record Table(long generation, long builtAt, LongIntMap index, Related[] rows) {
+    }
+
+    /**
+     * Related product ids, most related first: the first {@code coBought} were bought together with the
+     * product, the rest are best sellers of its category.
+     */
+    public record Related(long[] ids, int coBought) {
+
+        public long[] coBoughtIds() {
+            return coBought == ids.length ? ids : Arrays.copyOf(ids, coBought);
+        }
+
+        public long[] bestSellerIds() {
+            return coBought == 0 ? ids : Arrays.copyOfRange(ids, coBought, ids.length);
+        }
+    }
+}
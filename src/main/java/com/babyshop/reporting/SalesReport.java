@@ -0,0 +1,486 @@
+package com.babyshop.reporting;
+
+import com.babyshop.catalog.Money;
+import com.babyshop.catalog.ProductCategory;
+import com.babyshop.order.OrderPlacedEvent;
+import com.babyshop.order.PendingOrder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sales read model, updated from {@link OrderPlacedEvent}s instead of querying orders: totals, a
+ * ring of the last {@code app.reports.days} days, one counter pair per {@link ProductCategory}, a
+ * counter pair per product and the top {@code app.reports.top-products} products by units, kept in
+ * order as counts grow. A {@link #view(int) report} costs the same however many orders exist.
+ * <p>
+ * The model is written to {@code app.reports.snapshot-path} every {@code app.reports.snapshot-interval}
+ * and on shutdown. Order ids are handed out in blocks and persisted by several workers, so orders
+ * commit out of id order. The snapshot therefore also keeps the ids it counted within
+ * {@code app.reports.recount-window} ids below its high-water mark. At startup, every order above that
+ * floor is re-read from the database in a single join and the ones already counted are skipped. The
+ * snapshot also records when its high-water-mark order was created. If the database no longer holds
+ * that order (a fresh or different database), the snapshot is discarded and rebuilt from all orders.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class SalesReport {
+    private static final Logger log = LoggerFactory.getLogger(SalesReport.class);
+    private static final int MAGIC = 0x42535352; // "BSSR"
+    private static final int VERSION = 2;
+    private static final ProductCategory[] CATEGORIES = ProductCategory.values();
+    private static final Comparator<ProductTotals> RANKING = Comparator.comparingLong((ProductTotals p) -> p.units)
+            .thenComparingLong(p -> p.revenueCents)
+            .reversed()
+            .thenComparingLong(p -> p.productId);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ZoneId zone;
+    private final Path snapshotPath;
+    private final Duration snapshotInterval;
+    private final int topLimit;
+    private final long recountWindow;
+
+    private final long[] dayKeys;
+    private final long[] dayOrders;
+    private final long[] dayUnits;
+    private final long[] dayRevenueCents;
+    private final long[] categoryUnits = new long[CATEGORIES.length];
+    private final long[] categoryRevenueCents = new long[CATEGORIES.length];
+    private final Map<Long, ProductTotals> products = new HashMap<>();
+    private final ProductTotals[] top;
+    private int topSize;
+    private long orders;
+    private long units;
+    private long revenueCents;
+    private long highWaterMark;
+    private long highWaterMarkCreatedAt;
+    // Orders with ids above the floor are counted only if not in this set; orders at or below it were
+    // settled by an earlier snapshot. The floor rises to highWaterMark - recountWindow at each snapshot.
+    private long floor;
+    private final Set<Long> counted = new HashSet<>();
+    private boolean dirty;
+    private ScheduledExecutorService scheduler;
+
+    public SalesReport(JdbcTemplate jdbcTemplate,
+                       @Value("${app.reports.zone:UTC}") ZoneId zone,
+                       @Value("${app.reports.days:90}") int days,
+                       @Value("${app.reports.top-products:10}") int topLimit,
+                       @Value("${app.reports.snapshot-path:data/sales-report.bin}") Path snapshotPath,
+                       @Value("${app.reports.snapshot-interval:1m}") Duration snapshotInterval,
+                       @Value("${app.reports.recount-window:1000}") long recountWindow) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.zone = zone;
+        this.snapshotPath = snapshotPath;
+        this.snapshotInterval = snapshotInterval;
+        this.topLimit = topLimit;
+        this.recountWindow = recountWindow;
+        this.dayKeys = new long[days];
+        this.dayOrders = new long[days];
+        this.dayUnits = new long[days];
+        this.dayRevenueCents = new long[days];
+        this.top = new ProductTotals[topLimit];
+        Arrays.fill(dayKeys, Long.MIN_VALUE);
+    }
+
+    @PostConstruct
+    void start() throws IOException {
+        if (Files.exists(snapshotPath)) {
+            try (InputStream in = new BufferedInputStream(Files.newInputStream(snapshotPath))) {
+                read(new DataInputStream(in));
+            } catch (IOException | RuntimeException ex) {
+                log.warn("Ignoring unreadable sales report snapshot {}; rebuilding from orders", snapshotPath, ex);
+                clear();
+            }
+            if (!matchesDatabase()) {
+                log.info("Sales report snapshot {} does not match the orders in the database; rebuilding", snapshotPath);
+                clear();
+            }
+        }
+        int added = catchUp();
+        if (added > 0) {
+            log.info("Added {} orders missing from the sales report snapshot", added);
+            // Settles the scanned orders below the recount window, rather than keeping their ids until
+            // the first scheduled snapshot.
+            snapshotQuietly();
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "sales-report-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = snapshotInterval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::snapshotQuietly, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() throws IOException {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        snapshot();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onOrderPlaced(OrderPlacedEvent event) {
+        PendingOrder order = event.order();
+        if (isNew(order.id())) {
+            record(order.id(), order.createdAt(), order.lines());
+        }
+    }
+
+    /**
+     * The report for the last {@code days} days (at most {@code app.reports.days}), ending today.
+     */
+    public synchronized View view(int days) {
+        int span = Math.max(1, Math.min(days, dayKeys.length));
+        long today = LocalDate.now(zone).toEpochDay();
+        List<Day> daily = new ArrayList<>(span);
+        for (long day = today - span + 1; day <= today; day++) {
+            int slot = slot(day);
+            boolean present = dayKeys[slot] == day;
+            daily.add(new Day(LocalDate.ofEpochDay(day), present ? dayOrders[slot] : 0, present ? dayUnits[slot] : 0,
+                    Money.fromCents(present ? dayRevenueCents[slot] : 0)));
+        }
+        List<CategorySales> categories = new ArrayList<>(CATEGORIES.length);
+        for (ProductCategory category : CATEGORIES) {
+            categories.add(new CategorySales(category, categoryUnits[category.ordinal()],
+                    Money.fromCents(categoryRevenueCents[category.ordinal()])));
+        }
+        List<ProductSales> topProducts = new ArrayList<>(topSize);
+        for (int i = 0; i < topSize; i++) {
+            ProductTotals p = top[i];
+            topProducts.add(new ProductSales(p.productId, p.name, p.units, Money.fromCents(p.revenueCents)));
+        }
+        return new View(orders, units, Money.fromCents(revenueCents), daily, categories, topProducts);
+    }
+
+    private void record(long orderId, Instant createdAt, List<PendingOrder.Line> lines) {
+        long day = LocalDate.ofInstant(createdAt, zone).toEpochDay();
+        int slot = slot(day);
+        if (dayKeys[slot] < day) {
+            dayKeys[slot] = day;
+            dayOrders[slot] = 0;
+            dayUnits[slot] = 0;
+            dayRevenueCents[slot] = 0;
+        }
+        boolean inWindow = dayKeys[slot] == day;
+        orders++;
+        if (inWindow) {
+            dayOrders[slot]++;
+        }
+        for (PendingOrder.Line line : lines) {
+            long cents = line.unitPriceCents() * line.quantity();
+            units += line.quantity();
+            revenueCents += cents;
+            if (inWindow) {
+                dayUnits[slot] += line.quantity();
+                dayRevenueCents[slot] += cents;
+            }
+            categoryUnits[line.category().ordinal()] += line.quantity();
+            categoryRevenueCents[line.category().ordinal()] += cents;
+            ProductTotals product = products.computeIfAbsent(line.productId(), ProductTotals::new);
+            product.name = line.productName();
+            product.units += line.quantity();
+            product.revenueCents += cents;
+            rank(product);
+        }
+        if (orderId > highWaterMark) {
+            highWaterMark = orderId;
+            highWaterMarkCreatedAt = createdAt.toEpochMilli();
+        }
+        dirty = true;
+    }
+
+    /**
+     * Moves {@code product} to its place in {@code top} after its counts grew. Counts only grow, so a
+     * product that is not in the top list can only enter it by overtaking the last entry.
+     */
+    private void rank(ProductTotals product) {
+        if (topLimit == 0) {
+            return;
+        }
+        int index = -1;
+        for (int i = 0; i < topSize; i++) {
+            if (top[i] == product) {
+                index = i;
+                break;
+            }
+        }
+        if (index < 0) {
+            if (topSize < topLimit) {
+                index = topSize++;
+            } else if (RANKING.compare(product, top[topSize - 1]) < 0) {
+                index = topSize - 1;
+            } else {
+                return;
+            }
+            top[index] = product;
+        }
+        while (index > 0 && RANKING.compare(top[index], top[index - 1]) < 0) {
+            ProductTotals previous = top[index - 1];
+            top[index - 1] = top[index];
+            top[index] = previous;
+            index--;
+        }
+    }
+
+    private int slot(long day) {
+        return (int) Math.floorMod(day, (long) dayKeys.length);
+    }
+
+    /**
+     * Whether the order counted last by the snapshot is still in the database as it was.
+     */
+    private boolean matchesDatabase() {
+        long id;
+        long createdAt;
+        synchronized (this) {
+            id = highWaterMark;
+            createdAt = highWaterMarkCreatedAt;
+        }
+        if (id == 0) {
+            return true;
+        }
+        List<Instant> stored = jdbcTemplate.query("select created_at from orders where id = ?",
+                (rs, row) -> rs.getTimestamp(1).toInstant(), id);
+        return stored.size() == 1 && stored.get(0).toEpochMilli() == createdAt;
+    }
+
+    private synchronized boolean isNew(long orderId) {
+        return orderId <= floor || counted.add(orderId);
+    }
+
+    private int catchUp() {
+        long after;
+        synchronized (this) {
+            after = floor;
+        }
+        List<PendingOrder.Line> lines = new ArrayList<>();
+        long[] current = {0, 0};
+        int[] added = {0};
+        jdbcTemplate.query("""
+                select o.id, o.created_at, i.product_id, i.product_name, i.category, i.unit_price, i.quantity
+                from orders o join order_items i on i.order_id = o.id
+                where o.id > ?
+                order by o.id
+                """, rs -> {
+            long id = rs.getLong(1);
+            if (id != current[0] && !lines.isEmpty()) {
+                catchUp(current[0], Instant.ofEpochMilli(current[1]), lines);
+                added[0]++;
+                lines.clear();
+            }
+            current[0] = id;
+            current[1] = rs.getTimestamp(2).toInstant().toEpochMilli();
+            lines.add(new PendingOrder.Line(rs.getLong(3), rs.getString(4), ProductCategory.valueOf(rs.getString(5)),
+                    Money.toCents(rs.getBigDecimal(6)), rs.getInt(7)));
+        }, after);
+        if (!lines.isEmpty()) {
+            catchUp(current[0], Instant.ofEpochMilli(current[1]), lines);
+            added[0]++;
+        }
+        return added[0];
+    }
+
+    private synchronized void catchUp(long orderId, Instant createdAt, List<PendingOrder.Line> lines) {
+        // Skips orders the snapshot already counted, and orders committed while the scan runs that
+        // also arrive as an event; whichever comes first counts them.
+        if (isNew(orderId)) {
+            record(orderId, createdAt, List.copyOf(lines));
+        }
+    }
+
+    private void snapshotQuietly() {
+        try {
+            snapshot();
+        } catch (IOException | RuntimeException ex) {
+            log.warn("Could not write sales report snapshot {}", snapshotPath, ex);
+        }
+    }
+
+    private void snapshot() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        synchronized (this) {
+            // Orders well below the high-water mark are assumed committed and their events delivered.
+            long raised = Math.max(floor, highWaterMark - recountWindow);
+            if (raised > floor) {
+                floor = raised;
+                counted.removeIf(id -> id <= raised);
+                dirty = true;
+            }
+            if (!dirty) {
+                return;
+            }
+            write(new DataOutputStream(bytes));
+            dirty = false;
+        }
+        Path directory = snapshotPath.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, snapshotPath.getFileName().toString(), ".tmp");
+        try (var out = new BufferedOutputStream(Files.newOutputStream(temp))) {
+            bytes.writeTo(out);
+        }
+        Files.move(temp, snapshotPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private void write(DataOutputStream out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeUTF(zone.getId());
+        out.writeLong(highWaterMark);
+        out.writeLong(highWaterMarkCreatedAt);
+        out.writeLong(floor);
+        out.writeInt(counted.size());
+        for (long id : counted) {
+            out.writeLong(id);
+        }
+        out.writeLong(orders);
+        out.writeLong(units);
+        out.writeLong(revenueCents);
+        out.writeInt(dayKeys.length);
+        for (int slot = 0; slot < dayKeys.length; slot++) {
+            out.writeLong(dayKeys[slot]);
+            out.writeLong(dayOrders[slot]);
+            out.writeLong(dayUnits[slot]);
+            out.writeLong(dayRevenueCents[slot]);
+        }
+        out.writeInt(CATEGORIES.length);
+        for (ProductCategory category : CATEGORIES) {
+            out.writeUTF(category.name());
+            out.writeLong(categoryUnits[category.ordinal()]);
+            out.writeLong(categoryRevenueCents[category.ordinal()]);
+        }
+        out.writeInt(products.size());
+        for (ProductTotals product : products.values()) {
+            out.writeLong(product.productId);
+            out.writeUTF(product.name);
+            out.writeLong(product.units);
+            out.writeLong(product.revenueCents);
+        }
+        out.flush();
+    }
+
+    private synchronized void read(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+            throw new IOException("Not a sales report snapshot");
+        }
+        String snapshotZone = in.readUTF();
+        highWaterMark = in.readLong();
+        highWaterMarkCreatedAt = in.readLong();
+        floor = in.readLong();
+        int countedIds = in.readInt();
+        for (int i = 0; i < countedIds; i++) {
+            counted.add(in.readLong());
+        }
+        orders = in.readLong();
+        units = in.readLong();
+        revenueCents = in.readLong();
+        int slots = in.readInt();
+        boolean sameDays = slots == dayKeys.length && snapshotZone.equals(zone.getId());
+        for (int slot = 0; slot < slots; slot++) {
+            long day = in.readLong();
+            long dayOrderCount = in.readLong();
+            long dayUnitCount = in.readLong();
+            long dayRevenue = in.readLong();
+            // A different window size or zone maps days to other slots; start the daily ring afresh.
+            if (sameDays) {
+                dayKeys[slot] = day;
+                dayOrders[slot] = dayOrderCount;
+                dayUnits[slot] = dayUnitCount;
+                dayRevenueCents[slot] = dayRevenue;
+            }
+        }
+        int categories = in.readInt();
+        for (int i = 0; i < categories; i++) {
+            ProductCategory category = ProductCategory.valueOf(in.readUTF());
+            categoryUnits[category.ordinal()] = in.readLong();
+            categoryRevenueCents[category.ordinal()] = in.readLong();
+        }
+        int productCount = in.readInt();
+        for (int i = 0; i < productCount; i++) {
+            ProductTotals product = new ProductTotals(in.readLong());
+            product.name = in.readUTF();
+            product.units = in.readLong();
+            product.revenueCents = in.readLong();
+            products.put(product.productId, product);
+            rank(product);
+        }
+    }
+
+    private synchronized void clear() {
+        Arrays.fill(dayKeys, Long.MIN_VALUE);
+        Arrays.fill(dayOrders, 0);
+        Arrays.fill(dayUnits, 0);
+        Arrays.fill(dayRevenueCents, 0);
+        Arrays.fill(categoryUnits, 0);
+        Arrays.fill(categoryRevenueCents, 0);
+        Arrays.fill(top, null);
+        products.clear();
+        topSize = 0;
+        orders = 0;
+        units = 0;
+        revenueCents = 0;
+        highWaterMark = 0;
+        highWaterMarkCreatedAt = 0;
+        floor = 0;
+        counted.clear();
+    }
+
+    private static final class ProductTotals {
+        private final long productId;
+        private String name;
+        private long units;
+        private long revenueCents;
+
+        ProductTotals(long productId) {
+            this.productId = productId;
+        }
+    }
+
+    public record View(long orders, long units, BigDecimal revenue, List<Day> days, List<CategorySales> categories,
+                       List<ProductSales> topProducts) {
+    }
+
+    public record Day(LocalDate date, long orders, long units, BigDecimal revenue) {
+    }
+
+    public record CategorySales(ProductCategory category, long units, BigDecimal revenue) {
+    }
+
+    public record ProductSales(long productId, String name, long units, BigDecimal revenue) {
+    }
+}
@@ -1,12 +1,16 @@
 package com.babyshop.web;
 
 import com.babyshop.auth.AuthSession;
+import com.babyshop.auth.AuthThrottledException;
 import com.babyshop.auth.LoginForm;
 import com.babyshop.auth.SignupForm;
 import com.babyshop.auth.UserAccount;
 import com.babyshop.auth.UserService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.servlet.http.HttpSession;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
@@ -44,6 +48,8 @@ public class AuthController {
     public String login(@Valid @ModelAttribute("loginForm") LoginForm loginForm,
                         BindingResult bindingResult,
                         HttpSession session,
+                        HttpServletRequest request,
+                        HttpServletResponse response,
                         RedirectAttributes redirectAttributes,
                         Model model) {
         if (bindingResult.hasErrors()) {
@@ -51,7 +57,15 @@ public class AuthController {
             return "auth";
         }
 
-        Optional<UserAccount> user = userService.authenticate(loginForm.getEmail(), loginForm.getPassword());
+        Optional<UserAccount> user;
+        try {
+            user = userService.authenticate(loginForm.getEmail(), loginForm.getPassword(), request.getRemoteAddr());
+        } catch (AuthThrottledException ex) {
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            model.addAttribute("mode", "login");
+            model.addAttribute("authError", ex.getMessage());
+            return "auth";
+        }
         if (user.isEmpty()) {
             model.addAttribute("mode", "login");
             model.addAttribute("authError", "Invalid credentials");
@@ -68,6 +82,7 @@ public class AuthController {
     public String signup(@Valid @ModelAttribute("signupForm") SignupForm signupForm,
                          BindingResult bindingResult,
                          HttpSession session,
+                         HttpServletResponse response,
                          RedirectAttributes redirectAttributes,
                          Model model) {
         if (!bindingResult.hasErrors()) {
@@ -92,6 +107,11 @@ public class AuthController {
             model.addAttribute("mode", "signup");
             model.addAttribute("authError", ex.getMessage());
             return "auth";
+        } catch (AuthThrottledException ex) {
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            model.addAttribute("mode", "signup");
+            model.addAttribute("authError", ex.getMessage());
+            return "auth";
         }
     }
 
@@ -3,6 +3,7 @@ package com.babyshop.web;
 import com.babyshop.cart.Cart;
 import com.babyshop.catalog.Product;
 import com.babyshop.catalog.ProductService;
+import com.babyshop.inventory.InventoryService;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import org.springframework.stereotype.Controller;
@@ -16,10 +17,12 @@ import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 public class CartController {
     private final Cart cart;
     private final ProductService productService;
+    private final InventoryService inventoryService;
 
-    public CartController(Cart cart, ProductService productService) {
+    public CartController(Cart cart, ProductService productService, InventoryService inventoryService) {
         this.cart = cart;
         this.productService = productService;
+        this.inventoryService = inventoryService;
     }
 
     @GetMapping("/cart")
@@ -35,6 +38,11 @@ public class CartController {
             RedirectAttributes redirectAttributes
     ) {
         Product product = productService.getById(productId);
+        long available = inventoryService.available(productId);
+        if (cart.getQuantity(productId) + quantity > available) {
+            redirectAttributes.addFlashAttribute("toast", "Sorry, only " + available + " left of " + product.getName());
+            return "redirect:/cart";
+        }
         cart.add(product, quantity);
         redirectAttributes.addFlashAttribute("toast", product.getName() + " added to cart");
         return "redirect:/cart";
@@ -0,0 +1,54 @@
+package com.babyshop.web;
+
+import com.babyshop.catalog.CatalogSnapshotService;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+public class CatalogAdminController {
+    private final CacheManager cacheManager;
+    private final CatalogSnapshotService catalogSnapshotService;
+
+    public CatalogAdminController(CacheManager cacheManager, CatalogSnapshotService catalogSnapshotService) {
+        this.cacheManager = cacheManager;
+        this.catalogSnapshotService = catalogSnapshotService;
+    }
+
+    @GetMapping("/admin/catalog/snapshot")
+    public ResponseEntity<StreamingResponseBody> snapshot() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename("catalog.bsnp").build().toString())
+                .body(out -> catalogSnapshotService.exportTo(out));
+    }
+
+    @GetMapping("/admin/catalog/cache")
+    public Map<String, Map<String, Object>> cacheStats() {
+        Map<String, Map<String, Object>> result = new LinkedHashMap<>();
+        for (String name : cacheManager.getCacheNames()) {
+            if (cacheManager.getCache(name) instanceof CaffeineCache cache) {
+                CacheStats stats = cache.getNativeCache().stats();
+                Map<String, Object> entry = new LinkedHashMap<>();
+                entry.put("size", cache.getNativeCache().estimatedSize());
+                entry.put("hits", stats.hitCount());
+                entry.put("misses", stats.missCount());
+                entry.put("hitRate", stats.hitRate());
+                entry.put("evictions", stats.evictionCount());
+                result.put(name, entry);
+            }
+        }
+        return result;
+    }
+}
@@ -1,35 +1,177 @@
 package com.babyshop.web;
 
+import com.babyshop.catalog.CatalogVersion;
+import com.babyshop.catalog.PriceBand;
 import com.babyshop.catalog.Product;
+import com.babyshop.catalog.ProductCategory;
+import com.babyshop.catalog.ProductFilter;
+import com.babyshop.catalog.ProductPage;
+import com.babyshop.catalog.ProductQuery;
 import com.babyshop.catalog.ProductService;
+import com.babyshop.catalog.ProductSort;
+import com.babyshop.recommendations.RelatedProducts;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.RequestContextUtils;
+import org.springframework.web.util.UriComponentsBuilder;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
+/**
+ * Catalog pages are the same for every visitor (the per-visitor nav is filled in by {@code nav.js}),
+ * so they carry strong ETags and Last-Modified from {@link CatalogVersion} and are marked public for
+ * browsers and CDNs to revalidate. A page that shows a flash toast is per-visitor and never cached.
+ */
 @Controller
 public class CatalogController {
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final int STREAM_FLUSH_INTERVAL = 100;
+
     private final ProductService productService;
+    private final ObjectMapper objectMapper;
+    private final CatalogVersion catalogVersion;
+    private final RelatedProducts relatedProducts;
+    private final CacheControl cacheControl;
 
-    public CatalogController(ProductService productService) {
+    public CatalogController(ProductService productService,
+                             ObjectMapper objectMapper,
+                             CatalogVersion catalogVersion,
+                             RelatedProducts relatedProducts,
+                             @Value("${app.web.catalog-max-age:0s}") Duration maxAge) {
         this.productService = productService;
+        this.objectMapper = objectMapper;
+        this.catalogVersion = catalogVersion;
+        this.relatedProducts = relatedProducts;
+        this.cacheControl = CacheControl.maxAge(maxAge).cachePublic().mustRevalidate();
     }
 
     @GetMapping("/products")
-    public String products(@RequestParam(name = "q", required = false) String q, Model model) {
+    public String products(@RequestParam(name = "q", required = false) String q,
+                           @RequestParam(name = "after", required = false) String after,
+                           @RequestParam(name = "size", required = false) Integer size,
+                           @RequestParam(name = "category", required = false) List<ProductCategory> categories,
+                           @RequestParam(name = "price", required = false) List<PriceBand> priceBands,
+                           @RequestParam(name = "inStock", defaultValue = "false") boolean inStockOnly,
+                           @RequestParam(name = "minPrice", required = false) BigDecimal minPrice,
+                           @RequestParam(name = "maxPrice", required = false) BigDecimal maxPrice,
+                           @RequestParam(name = "sort", required = false) ProductSort sort,
+                           HttpServletRequest request,
+                           ServletWebRequest webRequest,
+                           Model model) {
+        String etag = "\"" + Long.toHexString(catalogVersion.epoch()) + "-" + catalogVersion.catalog() + "\"";
+        if (notModified(webRequest, etag, catalogVersion.catalogLastModified())) {
+            return null;
+        }
+        ProductFilter filter = ProductFilter.of(categories, priceBands, inStockOnly, minPrice, maxPrice);
+        ProductQuery query = ProductQuery.of(q, after, size, filter, sort);
+        ProductPage page = productService.listPage(query);
         model.addAttribute("q", q == null ? "" : q);
-        model.addAttribute("products", productService.listProducts(Optional.ofNullable(q)));
+        model.addAttribute("products", page.items());
+        model.addAttribute("facets", page.facets());
+        model.addAttribute("filter", filter);
+        model.addAttribute("minPrice", minPrice == null ? "" : minPrice.toPlainString());
+        model.addAttribute("maxPrice", maxPrice == null ? "" : maxPrice.toPlainString());
+        model.addAttribute("sort", query.sort());
+        model.addAttribute("sorts", ProductSort.values());
+        model.addAttribute("categories", ProductCategory.values());
+        model.addAttribute("priceBands", PriceBand.values());
+        model.addAttribute("firstPageUrl", query.after() == null ? null : pageUrl(request, null));
+        model.addAttribute("nextPageUrl", page.hasNext() ? pageUrl(request, page.nextCursor()) : null);
         return "products";
     }
 
+    @GetMapping("/products/stream")
+    public ResponseEntity<StreamingResponseBody> streamProducts(@RequestParam(name = "q", required = false) String q) {
+        StreamingResponseBody body = out -> {
+            int[] written = {0};
+            productService.forEachProduct(Optional.ofNullable(q), product -> {
+                writeLine(out, product);
+                if (++written[0] % STREAM_FLUSH_INTERVAL == 1) {
+                    flush(out);
+                }
+            });
+            out.flush();
+        };
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
+    }
+
     @GetMapping("/products/{id}")
-    public String product(@PathVariable("id") long id, Model model) {
+    public String product(@PathVariable("id") long id, ServletWebRequest webRequest, Model model) {
+        // The page also lists related products, so its validators cover the related table and their versions.
+        RelatedProducts.Related related = relatedProducts.of(id);
+        long relatedVersions = 0;
+        long lastModified = Math.max(catalogVersion.lastModified(id), relatedProducts.lastModified());
+        for (long relatedId : related.ids()) {
+            relatedVersions += catalogVersion.of(relatedId);
+            lastModified = Math.max(lastModified, catalogVersion.lastModified(relatedId));
+        }
+        String etag = "\"" + Long.toHexString(catalogVersion.epoch()) + "-" + id + "-" + catalogVersion.of(id)
+                + "-" + relatedProducts.generation() + "." + relatedVersions + "\"";
+        if (notModified(webRequest, etag, lastModified)) {
+            return null;
+        }
         Product product = productService.getById(id);
         model.addAttribute("product", product);
+        model.addAttribute("alsoBought", relatedProducts.products(related.coBoughtIds()));
+        model.addAttribute("bestSellers", relatedProducts.products(related.bestSellerIds()));
         return "product";
     }
-}
 
+    private boolean notModified(ServletWebRequest webRequest, String etag, long lastModified) {
+        HttpServletResponse response = webRequest.getResponse();
+        Map<String, ?> flash = RequestContextUtils.getInputFlashMap(webRequest.getRequest());
+        if (flash != null && flash.containsKey("toast")) {
+            response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noStore().getHeaderValue());
+            return false;
+        }
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl.getHeaderValue());
+        return webRequest.checkNotModified(etag, lastModified);
+    }
+
+    private static String pageUrl(HttpServletRequest request, String after) {
+        UriComponentsBuilder builder = UriComponentsBuilder.fromPath("/products")
+                .query(request.getQueryString())
+                .replaceQueryParam("after");
+        if (after != null) {
+            builder.queryParam("after", after);
+        }
+        return builder.build(true).toUriString();
+    }
+
+    private void writeLine(OutputStream out, Product product) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(product));
+            out.write('\n');
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static void flush(OutputStream out) {
+        try {
+            out.flush();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
@@ -1,9 +1,10 @@
 package com.babyshop.web;
 
+import com.babyshop.auth.AuthSession;
 import com.babyshop.cart.Cart;
+import com.babyshop.inventory.OutOfStockException;
 import com.babyshop.order.CheckoutForm;
-import com.babyshop.order.CustomerOrder;
-import com.babyshop.order.OrderService;
+import com.babyshop.order.OrderIntakeService;
 import jakarta.validation.Valid;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -11,16 +12,17 @@ import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.SessionAttribute;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 @Controller
 public class CheckoutController {
     private final Cart cart;
-    private final OrderService orderService;
+    private final OrderIntakeService orderIntakeService;
 
-    public CheckoutController(Cart cart, OrderService orderService) {
+    public CheckoutController(Cart cart, OrderIntakeService orderIntakeService) {
         this.cart = cart;
-        this.orderService = orderService;
+        this.orderIntakeService = orderIntakeService;
     }
 
     @GetMapping("/checkout")
@@ -38,6 +40,7 @@ public class CheckoutController {
     @PostMapping("/checkout")
     public String placeOrder(@Valid @ModelAttribute CheckoutForm checkoutForm,
                              BindingResult bindingResult,
+                             @SessionAttribute(name = AuthSession.USER_ID, required = false) Long userId,
                              Model model,
                              RedirectAttributes redirectAttributes) {
         if (cart.getItems().isEmpty()) {
@@ -48,19 +51,30 @@ public class CheckoutController {
             return "checkout";
         }
 
-        CustomerOrder order = orderService.placeOrder(checkoutForm, cart);
+        long orderId;
+        try {
+            orderId = orderIntakeService.submit(checkoutForm, cart, userId);
+        } catch (OutOfStockException ex) {
+            String name = cart.getItems().stream()
+                    .filter(item -> item.getProduct().getId() == ex.getProductId())
+                    .map(item -> item.getProduct().getName())
+                    .findFirst()
+                    .orElse("an item in your cart");
+            redirectAttributes.addFlashAttribute("toast", "Sorry, only " + ex.getAvailable() + " left of " + name);
+            return "redirect:/cart";
+        }
         cart.clear();
-        redirectAttributes.addFlashAttribute("orderId", order.getId());
+        redirectAttributes.addFlashAttribute("orderId", orderId);
         return "redirect:/order-confirmation";
     }
 
     @GetMapping("/order-confirmation")
     public String confirmation(Model model) {
-        Object orderId = model.asMap().get("orderId");
-        if (orderId == null) {
+        if (!(model.asMap().get("orderId") instanceof Long orderId)) {
             return "redirect:/products";
         }
         model.addAttribute("orderId", orderId);
+        model.addAttribute("orderStatus", orderIntakeService.status(orderId));
         return "order-confirmation";
     }
 }
@@ -0,0 +1,29 @@
+package com.babyshop.web;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Per-visitor nav state for pages that are rendered once for everybody (see
+ * {@link CatalogController}); {@code nav.js} fetches it and fills in the cart count and login state.
+ */
+@RestController
+public class NavController {
+    private final NavModelAdvice navModelAdvice;
+
+    public NavController(NavModelAdvice navModelAdvice) {
+        this.navModelAdvice = navModelAdvice;
+    }
+
+    @GetMapping("/nav")
+    public ResponseEntity<NavState> nav() {
+        NavState state = new NavState(navModelAdvice.cartItemCount(), navModelAdvice.isLoggedIn(),
+                navModelAdvice.currentUserEmail());
+        return ResponseEntity.ok().cacheControl(CacheControl.noStore()).body(state);
+    }
+
+    public record NavState(int cartItemCount, boolean loggedIn, String email) {
+    }
+}
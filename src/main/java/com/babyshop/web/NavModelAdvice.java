@@ -2,6 +2,7 @@ package com.babyshop.web;
 
 import com.babyshop.auth.AuthSession;
 import com.babyshop.cart.Cart;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpSession;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ModelAttribute;
@@ -9,11 +10,11 @@ import org.springframework.web.bind.annotation.ModelAttribute;
 @ControllerAdvice
 public class NavModelAdvice {
     private final Cart cart;
-    private final HttpSession session;
+    private final HttpServletRequest request;
 
-    public NavModelAdvice(Cart cart, HttpSession session) {
+    public NavModelAdvice(Cart cart, HttpServletRequest request) {
         this.cart = cart;
-        this.session = session;
+        this.request = request;
     }
 
     @ModelAttribute("cartItemCount")
@@ -23,13 +24,17 @@ public class NavModelAdvice {
 
     @ModelAttribute("isLoggedIn")
     public boolean isLoggedIn() {
-        return session.getAttribute(AuthSession.USER_ID) != null;
+        return sessionAttribute(AuthSession.USER_ID) != null;
     }
 
     @ModelAttribute("currentUserEmail")
     public String currentUserEmail() {
-        Object email = session.getAttribute(AuthSession.USER_EMAIL);
+        Object email = sessionAttribute(AuthSession.USER_EMAIL);
         return email == null ? "" : String.valueOf(email);
     }
-}
 
+    private Object sessionAttribute(String name) {
+        HttpSession session = request.getSession(false);
+        return session == null ? null : session.getAttribute(name);
+    }
+}
@@ -0,0 +1,43 @@
+package com.babyshop.web;
+
+import com.babyshop.reporting.OrderLineExport;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+@RestController
+public class OrderExportController {
+    private final OrderLineExport orderLineExport;
+    private final ZoneId zone;
+
+    public OrderExportController(OrderLineExport orderLineExport, @Value("${app.reports.zone:UTC}") ZoneId zone) {
+        this.orderLineExport = orderLineExport;
+        this.zone = zone;
+    }
+
+    /**
+     * Order lines for {@code from} to {@code to} (inclusive), by default yesterday's.
+     */
+    @GetMapping("/admin/reports/order-lines")
+    public ResponseEntity<StreamingResponseBody> orderLines(
+            @RequestParam(name = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(name = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        LocalDate first = from != null ? from : LocalDate.now(zone).minusDays(1);
+        LocalDate last = to != null ? to : first;
+        String filename = "order-lines-" + first + (last.equals(first) ? "" : "_" + last) + ".csv.gz";
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+                .body(out -> orderLineExport.exportCsv(first, last, out));
+    }
+}
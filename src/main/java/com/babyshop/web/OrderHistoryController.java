@@ -0,0 +1,41 @@
+package com.babyshop.web;
+
+import com.babyshop.auth.AuthSession;
+import com.babyshop.order.OrderHistoryPage;
+import com.babyshop.order.OrderHistoryService;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.SessionAttribute;
+import org.springframework.web.util.UriComponentsBuilder;
+
+@Controller
+public class OrderHistoryController {
+    private static final int DEFAULT_SIZE = 10;
+    private static final int MAX_SIZE = 50;
+
+    private final OrderHistoryService orderHistoryService;
+
+    public OrderHistoryController(OrderHistoryService orderHistoryService) {
+        this.orderHistoryService = orderHistoryService;
+    }
+
+    @GetMapping("/orders")
+    public String orders(@SessionAttribute(name = AuthSession.USER_ID, required = false) Long userId,
+                         @RequestParam(name = "after", required = false) String after,
+                         @RequestParam(name = "size", required = false) Integer size,
+                         Model model) {
+        if (userId == null) {
+            return "redirect:/auth?mode=login";
+        }
+        int pageSize = size == null ? DEFAULT_SIZE : Math.min(Math.max(size, 1), MAX_SIZE);
+        OrderHistoryPage page = orderHistoryService.page(userId, after, pageSize);
+        model.addAttribute("orders", page.orders());
+        model.addAttribute("firstPageUrl", after == null ? null : "/orders");
+        model.addAttribute("nextPageUrl", page.hasNext()
+                ? UriComponentsBuilder.fromPath("/orders").queryParam("after", page.nextCursor()).toUriString()
+                : null);
+        return "orders";
+    }
+}
@@ -0,0 +1,79 @@
+package com.babyshop.web;
+
+import com.babyshop.catalog.Product;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.ServletContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.thymeleaf.context.WebContext;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.spring6.expression.ThymeleafEvaluationContext;
+import org.thymeleaf.web.servlet.JakartaServletWebApplication;
+
+import java.util.Set;
+
+/**
+ * Output cache for the product markup that is the same for every visitor: catalog cards and the
+ * product detail body. Entries are keyed by product id and the {@link Product#getVersion() version}
+ * of the instance being rendered, never by a version read on the side: a caller still holding the
+ * product from before a write can only ever store or read markup under that older version. A product
+ * write simply makes its old entries unreachable. Templates call it as {@code @productFragments}.
+ * <p>
+ * Caching follows {@code spring.thymeleaf.cache}: with template caching off (development), fragments
+ * are rendered on every request so template edits show up immediately.
+ */
+@Component("productFragments")
+public class ProductFragmentCache {
+    private static final String TEMPLATE = "fragments/product";
+
+    private final SpringTemplateEngine templateEngine;
+    private final JakartaServletWebApplication application;
+    private final ApplicationContext applicationContext;
+    private final Cache<Key, String> cache;
+
+    public ProductFragmentCache(SpringTemplateEngine templateEngine,
+                                ServletContext servletContext,
+                                ApplicationContext applicationContext,
+                                @Value("${spring.thymeleaf.cache:true}") boolean enabled,
+                                @Value("${app.web.fragment-cache.spec:maximumSize=20000,recordStats}") String spec) {
+        this.templateEngine = templateEngine;
+        this.application = JakartaServletWebApplication.buildApplication(servletContext);
+        this.applicationContext = applicationContext;
+        this.cache = enabled ? Caffeine.from(spec).build() : null;
+    }
+
+    public String card(Product product) {
+        return render("card", "p", product);
+    }
+
+    public String detail(Product product) {
+        return render("detail", "product", product);
+    }
+
+    private String render(String fragment, String variable, Product product) {
+        if (cache == null) {
+            return process(fragment, variable, product);
+        }
+        Key key = new Key(fragment, product.getId(), product.getVersion());
+        return cache.get(key, k -> process(fragment, variable, product));
+    }
+
+    private String process(String fragment, String variable, Product product) {
+        ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.currentRequestAttributes();
+        WebContext context = new WebContext(
+                application.buildExchange(attributes.getRequest(), attributes.getResponse()),
+                LocaleContextHolder.getLocale());
+        context.setVariable(ThymeleafEvaluationContext.THYMELEAF_EVALUATION_CONTEXT_CONTEXT_VARIABLE_NAME,
+                new ThymeleafEvaluationContext(applicationContext, null));
+        context.setVariable(variable, product);
+        return templateEngine.process(TEMPLATE, Set.of(fragment), context);
+    }
+
+    private record Key(String fragment, long productId, long version) {
+    }
+}
@@ -0,0 +1,20 @@
+package com.babyshop.web;
+
+import com.babyshop.reporting.SalesReport;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+public class SalesReportController {
+    private final SalesReport salesReport;
+
+    public SalesReportController(SalesReport salesReport) {
+        this.salesReport = salesReport;
+    }
+
+    @GetMapping("/admin/reports/sales")
+    public SalesReport.View sales(@RequestParam(defaultValue = "30") int days) {
+        return salesReport.view(days);
+    }
+}
@@ -1,40 +1,40 @@
-insert into products (name, description, category, price, image_url, in_stock) values
+insert into products (name, description, category, price, image_url, in_stock, stock_quantity) values
 -- DIAPERS (brands)
-('Pampers Swaddlers Newborn Diapers (Size 1)', 'Super-absorbent diapers designed for sensitive newborn skin. Soft, secure fit.', 'DIAPERS', 13.99, '/images/Pampers%20Swaddlers%20Newborn%20Diapers%20%28Size%201%29.jpg', true),
-('Huggies Little Snugglers Newborn Diapers (Size 1)', 'Cushiony, breathable diapers for everyday comfort and leak protection.', 'DIAPERS', 14.49, '/images/Huggies%20Little%20Snugglers%20Newborn%20Diapers.jpg', true),
-('The Honest Company Clean Conscious Diapers (Size 1)', 'Plant-based backsheet with a comfy fit. Great for day-to-day changes.', 'DIAPERS', 15.99, '/images/The%20Honest%20Company%20Clean%20Conscious%20Diapers%20%28Size%201%29.jpg', true),
+('Pampers Swaddlers Newborn Diapers (Size 1)', 'Super-absorbent diapers designed for sensitive newborn skin. Soft, secure fit.', 'DIAPERS', 13.99, '/images/Pampers%20Swaddlers%20Newborn%20Diapers%20%28Size%201%29.jpg', true, 120),
+('Huggies Little Snugglers Newborn Diapers (Size 1)', 'Cushiony, breathable diapers for everyday comfort and leak protection.', 'DIAPERS', 14.49, '/images/Huggies%20Little%20Snugglers%20Newborn%20Diapers.jpg', true, 80),
+('The Honest Company Clean Conscious Diapers (Size 1)', 'Plant-based backsheet with a comfy fit. Great for day-to-day changes.', 'DIAPERS', 15.99, '/images/The%20Honest%20Company%20Clean%20Conscious%20Diapers%20%28Size%201%29.jpg', true, 45),
 
 -- WIPES (brands)
-('WaterWipes Sensitive Baby Wipes (60ct)', 'Ultra-gentle wipes for sensitive skin. Great for quick cleanups.', 'HEALTH', 5.49, '/images/WaterWipes%20Sensitive%20Baby%20Wipes%20%2860ct%29.jpg', true),
-('Pampers Sensitive Baby Wipes (56ct)', 'Soft wipes with a gentle, fragrance-free formula for everyday use.', 'HEALTH', 4.99, '/images/Pampers%20Sensitive%20Baby%20Wipes%20%2856ct%29.jpg', true),
-('Huggies Natural Care Baby Wipes (56ct)', 'Thick and soft wipes with a gentle clean. Ideal for diaper changes.', 'HEALTH', 4.79, '/images/Huggies%20Natural%20Care%20Baby%20Wipes.jpg', true),
+('WaterWipes Sensitive Baby Wipes (60ct)', 'Ultra-gentle wipes for sensitive skin. Great for quick cleanups.', 'HEALTH', 5.49, '/images/WaterWipes%20Sensitive%20Baby%20Wipes%20%2860ct%29.jpg', true, 60),
+('Pampers Sensitive Baby Wipes (56ct)', 'Soft wipes with a gentle, fragrance-free formula for everyday use.', 'HEALTH', 4.99, '/images/Pampers%20Sensitive%20Baby%20Wipes%20%2856ct%29.jpg', true, 200),
+('Huggies Natural Care Baby Wipes (56ct)', 'Thick and soft wipes with a gentle clean. Ideal for diaper changes.', 'HEALTH', 4.79, '/images/Huggies%20Natural%20Care%20Baby%20Wipes.jpg', true, 35),
 
 -- FEEDING: Anti-colic bottles (brands)
-('Philips Avent Anti-Colic Baby Bottle 8oz', 'Anti-colic valve designed to reduce gas and fussiness.', 'FEEDING', 10.99, '/images/Philips%20Avent%20Anti-Colic%20Baby%20Bottle%208oz.jpg', true),
-('Dr. Brown''s Options+ Anti-Colic Baby Bottle 8oz', 'Vented design to help reduce feeding problems like colic, spit-up, and gas.', 'FEEDING', 11.49, '/images/Dr.%20Brown%27s%20Options%2B%20Anti-Colic%20Baby%20Bottle%208oz.jpg', true),
-('Tommee Tippee Advanced Anti-Colic Baby Bottle 8oz', 'Air-in venting helps reduce colic symptoms for a smoother feed.', 'FEEDING', 10.49, '/images/Tommee%20Tippee%20Advanced%20Anti-Colic%20Baby%20Bottle%208oz.jpg', true),
+('Philips Avent Anti-Colic Baby Bottle 8oz', 'Anti-colic valve designed to reduce gas and fussiness.', 'FEEDING', 10.99, '/images/Philips%20Avent%20Anti-Colic%20Baby%20Bottle%208oz.jpg', true, 150),
+('Dr. Brown''s Options+ Anti-Colic Baby Bottle 8oz', 'Vented design to help reduce feeding problems like colic, spit-up, and gas.', 'FEEDING', 11.49, '/images/Dr.%20Brown%27s%20Options%2B%20Anti-Colic%20Baby%20Bottle%208oz.jpg', true, 90),
+('Tommee Tippee Advanced Anti-Colic Baby Bottle 8oz', 'Air-in venting helps reduce colic symptoms for a smoother feed.', 'FEEDING', 10.49, '/images/Tommee%20Tippee%20Advanced%20Anti-Colic%20Baby%20Bottle%208oz.jpg', true, 120),
 
 -- FEEDING: Bibs (brands)
-('Mushie Silicone Bib (2-pack)', 'Easy-clean bibs with catch pocket. Dishwasher safe.', 'FEEDING', 12.50, '/images/Mushie%20Silicone%20Bib.jpg', true),
-('Bumkins Silicone Bib (2-pack)', 'Soft silicone bibs with an adjustable neck and crumb catcher.', 'FEEDING', 11.95, '/images/bumkins-silicone-bib.jpg', true),
-('OXO Tot Roll-Up Bib (2-pack)', 'Foldable bibs with pocket—great for travel and quick meals.', 'FEEDING', 13.25, '/images/OXO%20Tot%20Roll-Up%20Bib%20%282-pack%29.jpg', true),
+('Mushie Silicone Bib (2-pack)', 'Easy-clean bibs with catch pocket. Dishwasher safe.', 'FEEDING', 12.50, '/images/Mushie%20Silicone%20Bib.jpg', true, 80),
+('Bumkins Silicone Bib (2-pack)', 'Soft silicone bibs with an adjustable neck and crumb catcher.', 'FEEDING', 11.95, '/images/bumkins-silicone-bib.jpg', true, 45),
+('OXO Tot Roll-Up Bib (2-pack)', 'Foldable bibs with pocket—great for travel and quick meals.', 'FEEDING', 13.25, '/images/OXO%20Tot%20Roll-Up%20Bib%20%282-pack%29.jpg', true, 60),
 
 -- CLOTHING (brands)
-('Carter''s Cotton Onesie (3-pack)', 'Breathable cotton onesies with envelope shoulders.', 'CLOTHING', 18.00, '/images/Carter%27s%20Cotton%20Onesie.jpg', true),
-('Gerber Baby Onesies Bodysuits (3-pack)', 'Soft everyday essentials with comfortable fit and easy snaps.', 'CLOTHING', 16.50, '/images/Gerber%20Baby%20Onesies%20Bodysuits.jpg', true),
-('Hanna Andersson Organic Cotton Bodysuit (2-pack)', 'Cozy organic cotton with a premium feel for daily wear.', 'CLOTHING', 24.00, '/images/Hanna%20Andersson%20Organic%20Cotton%20Bodysuit.jpg', true),
+('Carter''s Cotton Onesie (3-pack)', 'Breathable cotton onesies with envelope shoulders.', 'CLOTHING', 18.00, '/images/Carter%27s%20Cotton%20Onesie.jpg', true, 200),
+('Gerber Baby Onesies Bodysuits (3-pack)', 'Soft everyday essentials with comfortable fit and easy snaps.', 'CLOTHING', 16.50, '/images/Gerber%20Baby%20Onesies%20Bodysuits.jpg', true, 35),
+('Hanna Andersson Organic Cotton Bodysuit (2-pack)', 'Cozy organic cotton with a premium feel for daily wear.', 'CLOTHING', 24.00, '/images/Hanna%20Andersson%20Organic%20Cotton%20Bodysuit.jpg', true, 150),
 
 -- BATH (brands)
-('Johnson''s Baby Shampoo & Wash', 'Tear-free formula for daily bath time. Gentle and classic.', 'BATH', 7.25, '/images/Johnson%27s%20Baby%20Shampoo%20%26%20Wash.jpg', true),
-('Aveeno Baby Daily Moisture Wash & Shampoo', 'Oat-based gentle wash for sensitive skin. Lightly scented.', 'BATH', 8.75, '/images/aveeno.jpg', true),
-('Hudson Baby Hooded Bath Towel', 'Plush hooded towel to keep baby warm after bath time.', 'BATH', 14.75, '/images/Hudson%20Baby%20Hooded%20Bath%20Towel.jpg', true),
+('Johnson''s Baby Shampoo & Wash', 'Tear-free formula for daily bath time. Gentle and classic.', 'BATH', 7.25, '/images/Johnson%27s%20Baby%20Shampoo%20%26%20Wash.jpg', true, 90),
+('Aveeno Baby Daily Moisture Wash & Shampoo', 'Oat-based gentle wash for sensitive skin. Lightly scented.', 'BATH', 8.75, '/images/aveeno.jpg', true, 120),
+('Hudson Baby Hooded Bath Towel', 'Plush hooded towel to keep baby warm after bath time.', 'BATH', 14.75, '/images/Hudson%20Baby%20Hooded%20Bath%20Towel.jpg', true, 80),
 
 -- TOYS (brands)
-('Fisher-Price Rattle & Teether Set', 'Textured teether with gentle rattle. BPA-free.', 'TOYS', 9.99, '/images/Fisher-Price%20Rattle%20%26%20Teether%20Set.jpg', true),
-('Nuby Teether & Rattle Set', 'Easy-grip teether with fun textures for soothing gums.', 'TOYS', 8.49, '/images/Nuby%20Teether%20%26%20Rattle%20Set.jpg', true),
-('Munchkin Stacking Cups', 'Colorful stacking cups for bath and play. 6 pieces.', 'TOYS', 6.49, '/images/Munchkin%20Stacking%20Cups.jpg', true),
+('Fisher-Price Rattle & Teether Set', 'Textured teether with gentle rattle. BPA-free.', 'TOYS', 9.99, '/images/Fisher-Price%20Rattle%20%26%20Teether%20Set.jpg', true, 45),
+('Nuby Teether & Rattle Set', 'Easy-grip teether with fun textures for soothing gums.', 'TOYS', 8.49, '/images/Nuby%20Teether%20%26%20Rattle%20Set.jpg', true, 60),
+('Munchkin Stacking Cups', 'Colorful stacking cups for bath and play. 6 pieces.', 'TOYS', 6.49, '/images/Munchkin%20Stacking%20Cups.jpg', true, 200),
 
 -- HEALTH (brands)
-('Frida Baby NoseFrida Nasal Aspirator', 'Hygienic suction tool designed to help clear stuffy noses.', 'HEALTH', 12.99, '/images/Frida%20Baby%20NoseFrida%20Nasal%20Aspirator.jpg', true),
-('Safety 1st Nasal Aspirator', 'Easy-squeeze bulb aspirator with washable parts.', 'HEALTH', 5.99, '/images/Safety%201st%20Nasal%20Aspirator.jpg', true);
+('Frida Baby NoseFrida Nasal Aspirator', 'Hygienic suction tool designed to help clear stuffy noses.', 'HEALTH', 12.99, '/images/Frida%20Baby%20NoseFrida%20Nasal%20Aspirator.jpg', true, 35),
+('Safety 1st Nasal Aspirator', 'Easy-squeeze bulb aspirator with washable parts.', 'HEALTH', 5.99, '/images/Safety%201st%20Nasal%20Aspirator.jpg', true, 150);
 
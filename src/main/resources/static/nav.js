@@ -0,0 +1,24 @@
+// Fills the visitor's cart count and login state into a nav that was rendered for everybody.
+(function () {
+  var nav = document.querySelector('[data-nav-shared]');
+  if (!nav) {
+    return;
+  }
+  fetch('/nav', {credentials: 'same-origin', cache: 'no-store'})
+    .then(function (response) { return response.ok ? response.json() : null; })
+    .then(function (state) {
+      if (!state) {
+        return;
+      }
+      nav.querySelector('[data-nav="cart-count"]').textContent = state.cartItemCount;
+      nav.querySelectorAll('[data-nav="guest"]').forEach(function (el) {
+        if (state.loggedIn) {
+          el.remove();
+        }
+      });
+      if (state.loggedIn) {
+        nav.querySelector('[data-nav="email"]').textContent = state.email;
+        nav.querySelector('[data-nav="user"]').style.display = '';
+      }
+    });
+})();
@@ -0,0 +1,208 @@
+package com.babyshop.assets;
+
+import com.babyshop.images.ImageVariants;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StaticAssetFilterTest {
+    private static final String CSS = "/app.css";
+
+    @TempDir
+    static Path directory;
+
+    private static byte[] css;
+    private static StaticAssetFilter inMemory;
+    private static StaticAssetFilter fromDisk;
+
+    @BeforeAll
+    static void buildAssets() throws Exception {
+        css = Files.readAllBytes(Path.of("src/main/resources/static/app.css"));
+        ImageVariants images = new ImageVariants(directory.resolve("img"), new int[]{120}, 0.8f);
+        inMemory = new StaticAssetFilter(new StaticAssets(images, directory.resolve("assets"), DataSize.ofKilobytes(64)),
+                DataSize.ofBytes(1), Duration.ofHours(1));
+        fromDisk = new StaticAssetFilter(new StaticAssets(images, directory.resolve("assets"), DataSize.ofBytes(0)),
+                DataSize.ofBytes(1), Duration.ofHours(1));
+    }
+
+    @Test
+    void parsesSingleByteRanges() {
+        assertThat(StaticAssetFilter.parseRange("bytes=0-99", 1000)).containsExactly(0, 100);
+        assertThat(StaticAssetFilter.parseRange("bytes=900-", 1000)).containsExactly(900, 1000);
+        assertThat(StaticAssetFilter.parseRange("bytes=900-5000", 1000)).containsExactly(900, 1000);
+        assertThat(StaticAssetFilter.parseRange("bytes=-100", 1000)).containsExactly(900, 1000);
+        assertThat(StaticAssetFilter.parseRange("bytes=-5000", 1000)).containsExactly(0, 1000);
+    }
+
+    @Test
+    void rejectsUnsatisfiableRangesAndIgnoresUnsupportedOnes() {
+        assertThat(StaticAssetFilter.parseRange("bytes=1000-", 1000)).isNull();
+        assertThat(StaticAssetFilter.parseRange("bytes=-0", 1000)).isNull();
+        assertThat(StaticAssetFilter.parseRange("bytes=0-1,5-9", 1000)).isEmpty();
+        assertThat(StaticAssetFilter.parseRange("items=0-1", 1000)).isEmpty();
+        assertThat(StaticAssetFilter.parseRange("bytes=a-b", 1000)).isEmpty();
+    }
+
+    @Test
+    void readsQValuesInAcceptEncoding() {
+        assertThat(StaticAssetFilter.acceptsGzip("gzip, deflate, br")).isTrue();
+        assertThat(StaticAssetFilter.acceptsGzip("br;q=1.0, GZIP;q=0.5")).isTrue();
+        assertThat(StaticAssetFilter.acceptsGzip("x-gzip")).isTrue();
+        assertThat(StaticAssetFilter.acceptsGzip("*")).isTrue();
+        assertThat(StaticAssetFilter.acceptsGzip("gzip;q=0")).isFalse();
+        assertThat(StaticAssetFilter.acceptsGzip("gzip; q=0.000, *")).isFalse();
+        assertThat(StaticAssetFilter.acceptsGzip("*;q=0")).isFalse();
+        assertThat(StaticAssetFilter.acceptsGzip("identity, br")).isFalse();
+        assertThat(StaticAssetFilter.acceptsGzip("gzip;q=abc")).isFalse();
+        assertThat(StaticAssetFilter.acceptsGzip(null)).isFalse();
+    }
+
+    @Test
+    void servesTheGzipCopyOnlyToClientsThatAcceptIt() throws Exception {
+        MockHttpServletResponse gzipped = serve(inMemory, get(CSS, HttpHeaders.ACCEPT_ENCODING, "br, gzip;q=0.8"));
+        assertThat(gzipped.getStatus()).isEqualTo(200);
+        assertThat(gzipped.getHeader(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(gzipped.getHeader(HttpHeaders.VARY)).isEqualTo(HttpHeaders.ACCEPT_ENCODING);
+        assertThat(gzipped.getHeader(HttpHeaders.ETAG)).endsWith("-gz\"");
+        assertThat(gzipped.getContentLength()).isEqualTo(gzipped.getContentAsByteArray().length).isLessThan(css.length);
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped.getContentAsByteArray()))) {
+            assertThat(in.readAllBytes()).isEqualTo(css);
+        }
+
+        for (String refused : new String[]{"gzip;q=0", "identity"}) {
+            MockHttpServletResponse plain = serve(inMemory, get(CSS, HttpHeaders.ACCEPT_ENCODING, refused));
+            assertThat(plain.getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+            assertThat(plain.getHeader(HttpHeaders.VARY)).isEqualTo(HttpHeaders.ACCEPT_ENCODING);
+            assertThat(plain.getHeader(HttpHeaders.ETAG)).doesNotEndWith("-gz\"");
+            assertThat(plain.getContentAsByteArray()).isEqualTo(css);
+        }
+    }
+
+    @Test
+    void answersMatchingValidatorsWithNotModified() throws Exception {
+        String etag = serve(inMemory, get(CSS)).getHeader(HttpHeaders.ETAG);
+        String gzipEtag = serve(inMemory, get(CSS, HttpHeaders.ACCEPT_ENCODING, "gzip")).getHeader(HttpHeaders.ETAG);
+
+        MockHttpServletResponse notModified = serve(inMemory, get(CSS, HttpHeaders.IF_NONE_MATCH, etag));
+        assertThat(notModified.getStatus()).isEqualTo(304);
+        assertThat(notModified.getContentAsByteArray()).isEmpty();
+
+        MockHttpServletRequest gzipRequest = get(CSS, HttpHeaders.IF_NONE_MATCH, gzipEtag);
+        gzipRequest.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip");
+        assertThat(serve(inMemory, gzipRequest).getStatus()).isEqualTo(304);
+
+        // The identity validator does not match the gzip copy.
+        MockHttpServletRequest mismatched = get(CSS, HttpHeaders.IF_NONE_MATCH, etag);
+        mismatched.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip");
+        assertThat(serve(inMemory, mismatched).getStatus()).isEqualTo(200);
+
+        MockHttpServletRequest modifiedSince = get(CSS);
+        modifiedSince.addHeader(HttpHeaders.IF_MODIFIED_SINCE, System.currentTimeMillis() + 60_000);
+        assertThat(serve(inMemory, modifiedSince).getStatus()).isEqualTo(304);
+    }
+
+    @Test
+    void servesSingleRangesAndFallsBackToTheWholeBodyWhenIfRangeDoesNotMatch() throws Exception {
+        String etag = serve(inMemory, get(CSS)).getHeader(HttpHeaders.ETAG);
+
+        MockHttpServletRequest range = get(CSS, HttpHeaders.RANGE, "bytes=10-19");
+        range.addHeader(HttpHeaders.IF_RANGE, etag);
+        range.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip");
+        MockHttpServletResponse partial = serve(inMemory, range);
+        assertThat(partial.getStatus()).isEqualTo(206);
+        assertThat(partial.getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes 10-19/" + css.length);
+        assertThat(partial.getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+        assertThat(partial.getContentAsByteArray()).isEqualTo(Arrays.copyOfRange(css, 10, 20));
+
+        MockHttpServletRequest stale = get(CSS, HttpHeaders.RANGE, "bytes=10-19");
+        stale.addHeader(HttpHeaders.IF_RANGE, "\"an-older-version\"");
+        MockHttpServletResponse whole = serve(inMemory, stale);
+        assertThat(whole.getStatus()).isEqualTo(200);
+        assertThat(whole.getHeader(HttpHeaders.CONTENT_RANGE)).isNull();
+        assertThat(whole.getContentAsByteArray()).isEqualTo(css);
+    }
+
+    @Test
+    void rejectsUnsatisfiableRanges() throws Exception {
+        MockHttpServletResponse response = serve(inMemory, get(CSS, HttpHeaders.RANGE, "bytes=" + css.length + "-"));
+
+        assertThat(response.getStatus()).isEqualTo(416);
+        assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes */" + css.length);
+        assertThat(response.getContentAsByteArray()).isEmpty();
+    }
+
+    @Test
+    void answersHeadWithHeadersOnly() throws Exception {
+        MockHttpServletRequest head = new MockHttpServletRequest("HEAD", CSS);
+        MockHttpServletResponse response = serve(fromDisk, head);
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentLengthLong()).isEqualTo(css.length);
+        assertThat(response.getHeader(HttpHeaders.ACCEPT_RANGES)).isEqualTo("bytes");
+        assertThat(response.getContentAsByteArray()).isEmpty();
+        assertThat(head.getAttribute("org.apache.tomcat.sendfile.filename")).isNull();
+    }
+
+    @Test
+    void handsLargeFilesToSendfileWhenTheConnectorSupportsIt() throws Exception {
+        MockHttpServletRequest sendfile = get(CSS, HttpHeaders.RANGE, "bytes=100-");
+        sendfile.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+        MockHttpServletResponse response = serve(fromDisk, sendfile);
+
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getContentAsByteArray()).isEmpty();
+        Path file = Path.of((String) sendfile.getAttribute("org.apache.tomcat.sendfile.filename"));
+        assertThat(Files.readAllBytes(file)).isEqualTo(css);
+        assertThat(sendfile.getAttribute("org.apache.tomcat.sendfile.start")).isEqualTo(100L);
+        assertThat(sendfile.getAttribute("org.apache.tomcat.sendfile.end")).isEqualTo((long) css.length);
+
+        // Without sendfile the same range is copied from the file.
+        MockHttpServletRequest copied = get(CSS, HttpHeaders.RANGE, "bytes=100-");
+        MockHttpServletResponse copy = serve(fromDisk, copied);
+        assertThat(copy.getContentAsByteArray()).isEqualTo(Arrays.copyOfRange(css, 100, css.length));
+        assertThat(copied.getAttribute("org.apache.tomcat.sendfile.filename")).isNull();
+    }
+
+    @Test
+    void passesOtherRequestsDown() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletRequest post = new MockHttpServletRequest("POST", CSS);
+        inMemory.doFilter(post, new MockHttpServletResponse(), chain);
+        assertThat(chain.getRequest()).isSameAs(post);
+
+        chain = new MockFilterChain();
+        inMemory.doFilter(get("/products"), new MockHttpServletResponse(), chain);
+        assertThat(chain.getRequest()).isNotNull();
+    }
+
+    private static MockHttpServletRequest get(String path, String... headers) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        for (int i = 0; i < headers.length; i += 2) {
+            request.addHeader(headers[i], headers[i + 1]);
+        }
+        return request;
+    }
+
+    private static MockHttpServletResponse serve(StaticAssetFilter filter, MockHttpServletRequest request)
+            throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request, response, chain);
+        assertThat(chain.getRequest()).isNull();
+        return response;
+    }
+}
@@ -0,0 +1,33 @@
+package com.babyshop.auth;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LoginThrottleTest {
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void limitsAttemptsPerEmailAndRefillsOverTime() {
+        LoginThrottle throttle = new LoginThrottle(3, 6, 100, 100);
+        for (int i = 0; i < 3; i++) {
+            assertThat(throttle.tryAcquire("Parent@Example.com", "10.0.0." + i, 0)).isTrue();
+        }
+        assertThat(throttle.tryAcquire("parent@example.com", "10.0.0.9", 0)).isFalse();
+        assertThat(throttle.tryAcquire("other@example.com", "10.0.0.9", 0)).isTrue();
+        assertThat(throttle.tryAcquire("parent@example.com", "10.0.0.9", 10 * SECOND)).isTrue();
+        assertThat(throttle.tryAcquire("parent@example.com", "10.0.0.9", 10 * SECOND)).isFalse();
+    }
+
+    @Test
+    void limitsAttemptsPerClientAddressAcrossEmails() {
+        LoginThrottle throttle = new LoginThrottle(100, 100, 2, 60);
+        assertThat(throttle.tryAcquire("a@example.com", "203.0.113.7", 0)).isTrue();
+        assertThat(throttle.tryAcquire("b@example.com", "203.0.113.7", 0)).isTrue();
+        assertThat(throttle.tryAcquire("c@example.com", "203.0.113.7", 0)).isFalse();
+        assertThat(throttle.tryAcquire("c@example.com", "198.51.100.1", 0)).isTrue();
+        assertThat(throttle.tryAcquire("d@example.com", "203.0.113.7", SECOND)).isTrue();
+    }
+}
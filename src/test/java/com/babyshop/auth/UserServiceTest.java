@@ -0,0 +1,76 @@
+package com.babyshop.auth;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {"app.auth.bcrypt.strength=5", "app.auth.throttle.email-burst=3"})
+class UserServiceTest {
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserAccountRepository userAccountRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EmailFilter emailFilter;
+
+    @Test
+    void rehashesOnLoginWhenTheCostChanged() throws Exception {
+        UserAccount user = userAccountRepository.save(new UserAccount("rehash@example.com",
+                new BCryptPasswordEncoder(4).encode("secret123"), Instant.now()));
+
+        assertThat(userService.authenticate("rehash@example.com", "secret123", "127.0.0.1")).isPresent();
+
+        String hash = user.getPasswordHash();
+        for (int i = 0; i < 50 && hash.startsWith("$2a$04$"); i++) {
+            Thread.sleep(20);
+            hash = userAccountRepository.findById(user.getId()).orElseThrow().getPasswordHash();
+        }
+        assertThat(hash).startsWith("$2a$05$");
+        assertThat(userService.authenticate("rehash@example.com", "secret123", "127.0.0.1")).isPresent();
+    }
+
+    @Test
+    void logsInAccountsTheEmailFilterHasNotSeen() {
+        // As if another node created the account: no entity listener, so the local filter never hears of it.
+        jdbcTemplate.update("insert into users (email, email_normalized, password_hash, created_at) values (?, ?, ?, ?)",
+                "Elsewhere@example.com", "elsewhere@example.com", new BCryptPasswordEncoder(5).encode("secret123"),
+                Timestamp.from(Instant.now()));
+
+        assertThat(emailFilter.mightContain("elsewhere@example.com")).isFalse();
+        assertThat(userService.authenticate("elsewhere@example.com", "secret123", "127.0.0.4")).isPresent();
+    }
+
+    @Test
+    void throttlesRepeatedAttemptsForOneEmail() {
+        userService.signup("throttled@example.com", "secret123");
+        for (int i = 0; i < 3; i++) {
+            assertThat(userService.authenticate("throttled@example.com", "wrong", "127.0.0.2")).isEmpty();
+        }
+        assertThatThrownBy(() -> userService.authenticate("throttled@example.com", "secret123", "127.0.0.2"))
+                .isInstanceOf(AuthThrottledException.class);
+    }
+
+    @Test
+    void matchesEmailsIgnoringCaseAndRejectsDuplicates() {
+        userService.signup("Mixed.Case@Example.com", "secret123");
+
+        assertThat(userService.authenticate("mixed.case@example.COM", "secret123", "127.0.0.3")).isPresent();
+        assertThatThrownBy(() -> userService.signup(" MIXED.case@example.com", "secret123"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("already exists");
+        assertThat(userService.authenticate("nobody@example.com", "secret123", "127.0.0.3")).isEmpty();
+    }
+}
@@ -0,0 +1,81 @@
+package com.babyshop.cart;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CartStoreTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void offHeapStoreRoundTripsCartsInOrder() {
+        assertRoundTrips(new OffHeapCartStore(Duration.ofDays(7)));
+    }
+
+    @Test
+    void fileStoreRoundTripsCartsInOrder() {
+        assertRoundTrips(new FileCartStore(dir, Duration.ofDays(7)));
+    }
+
+    @Test
+    void evictsIdleCarts() {
+        OffHeapCartStore store = new OffHeapCartStore(Duration.ZERO);
+        store.save("idle", Map.of(1L, 1));
+        store.evictIdle();
+        assertThat(store.load("idle")).isEmpty();
+    }
+
+    @Test
+    void offHeapStoreReusesFreedChunksAcrossSlabs() {
+        OffHeapCartStore store = new OffHeapCartStore(Duration.ofDays(7), 4096);
+        for (int i = 0; i < 1000; i++) {
+            store.save("cart-" + i, Map.of((long) i, i % 9 + 1));
+        }
+        int slabs = store.slabCount();
+        assertThat(slabs).isGreaterThan(1);
+
+        for (int i = 0; i < 1000; i += 2) {
+            store.save("cart-" + i, Map.of());
+        }
+        for (int i = 0; i < 500; i++) {
+            store.save("other-" + i, Map.of(7L, 1, 8L, 2));
+        }
+        assertThat(store.slabCount()).isEqualTo(slabs);
+        for (int i = 1; i < 1000; i += 2) {
+            assertThat(store.load("cart-" + i)).containsExactly(Map.entry((long) i, i % 9 + 1));
+        }
+        assertThat(store.load("other-499")).containsExactlyInAnyOrderEntriesOf(Map.of(7L, 1, 8L, 2));
+
+        Map<Long, Integer> large = new LinkedHashMap<>();
+        for (long id = 1; id <= 100; id++) {
+            large.put(id, 1);
+        }
+        store.save("cart-1", large);
+        assertThat(store.load("cart-1")).containsExactlyEntriesOf(large);
+        assertThat(store.load("cart-3")).containsExactly(Map.entry(3L, 4));
+    }
+
+    private static void assertRoundTrips(CartStore store) {
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        quantities.put(42L, 3);
+        quantities.put(7L, 1);
+        quantities.put(5_000_000_000L, 99);
+        store.save("cart", quantities);
+        assertThat(store.load("cart")).containsExactlyEntriesOf(quantities);
+
+        quantities.remove(42L);
+        store.save("cart", quantities);
+        assertThat(store.load("cart")).containsExactlyEntriesOf(quantities);
+
+        store.save("cart", Map.of());
+        assertThat(store.load("cart")).isEmpty();
+        assertThat(store.load("unknown")).isEmpty();
+    }
+}
@@ -0,0 +1,77 @@
+package com.babyshop.cart;
+
+import com.babyshop.catalog.Product;
+import com.babyshop.catalog.ProductCategory;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CartTest {
+    private final Map<Long, Product> catalog = new HashMap<>();
+    private final List<Map<Long, Integer>> saved = new ArrayList<>();
+
+    @Test
+    void keepsCountAndSubtotalInStepWithChanges() {
+        Product wipes = product(1, "4.99");
+        Product bottle = product(2, "10.49");
+        Cart cart = cart(Map.of());
+
+        cart.add(wipes, 2);
+        assertThat(cart.getItemCount()).isEqualTo(2);
+        assertThat(cart.getSubtotal()).isEqualByComparingTo("9.98");
+
+        cart.add(bottle, 1);
+        cart.add(wipes, 1);
+        cart.setQuantity(2, 3);
+        assertThat(cart.getItemCount()).isEqualTo(6);
+        assertThat(cart.getSubtotalCents()).isEqualTo(3 * 499 + 3 * 1049);
+
+        cart.remove(1);
+        assertThat(cart.getItemCount()).isEqualTo(3);
+        assertThat(cart.getSubtotal()).isEqualByComparingTo("31.47");
+        assertThat(saved.get(saved.size() - 1)).containsExactly(Map.entry(2L, 3));
+
+        cart.clear();
+        assertThat(cart.getItemCount()).isZero();
+        assertThat(cart.getSubtotalCents()).isZero();
+    }
+
+    @Test
+    void rehydratesStoredLinesAndDropsMissingProducts() {
+        product(1, "4.99");
+        Map<Long, Integer> stored = new LinkedHashMap<>();
+        stored.put(1L, 2);
+        stored.put(99L, 5);
+        Cart cart = cart(stored);
+
+        assertThat(cart.getItemCount()).isEqualTo(7);
+        assertThat(cart.getSubtotal()).isEqualByComparingTo("9.98");
+        assertThat(cart.getItemCount()).isEqualTo(2);
+        assertThat(saved).containsExactly(Map.of(1L, 2));
+    }
+
+    private Cart cart(Map<Long, Integer> stored) {
+        return new Cart(stored, id -> {
+            Product product = catalog.get(id);
+            if (product == null) {
+                throw new IllegalArgumentException("Product not found");
+            }
+            return product;
+        }, quantities -> saved.add(new LinkedHashMap<>(quantities)));
+    }
+
+    private Product product(long id, String price) {
+        Product product = new Product("Product " + id, "", ProductCategory.TOYS, new BigDecimal(price), "/images/p.jpg", 10);
+        ReflectionTestUtils.setField(product, "id", id);
+        catalog.put(id, product);
+        return product;
+    }
+}
@@ -0,0 +1,60 @@
+package com.babyshop.catalog;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CatalogEngineTest {
+
+    @Test
+    void writesProduceNewSnapshotsAndLeaveOldOnesIntact() {
+        CatalogEngine.Snapshot.Builder builder = new CatalogEngine.Snapshot.Builder();
+        builder.add(2, "Rattle", "Wooden.", ProductCategory.TOYS, 899, "/images/rattle.jpg", 4, 0);
+        builder.add(5, "Bib", "Cotton.", ProductCategory.FEEDING, 499, "/images/bib.jpg", 0, 0);
+        builder.add(9, "Onesie", "Organic.", ProductCategory.CLOTHING, 1299, "/images/onesie.jpg", 10, 0);
+        CatalogEngine.Snapshot initial = builder.build();
+
+        assertThat(names(initial)).containsExactly("Bib", "Onesie", "Rattle");
+        Product bib = initial.product(initial.row(5));
+        assertThat(bib.getId()).isEqualTo(5L);
+        assertThat(bib.getPrice()).isEqualByComparingTo("4.99");
+        assertThat(bib.isInStock()).isFalse();
+
+        CatalogEngine.Snapshot inserted = initial.with(product(7, "Blanket", 2499));
+        CatalogEngine.Snapshot renamed = inserted.with(product(2, "Activity Rattle", 999));
+        CatalogEngine.Snapshot removed = renamed.without(9);
+
+        assertThat(names(inserted)).containsExactly("Bib", "Blanket", "Onesie", "Rattle");
+        assertThat(names(renamed)).containsExactly("Activity Rattle", "Bib", "Blanket", "Onesie");
+        assertThat(names(removed)).containsExactly("Activity Rattle", "Bib", "Blanket");
+        assertThat(removed.row(9)).isNegative();
+        assertThat(removed.product(removed.row(7)).getName()).isEqualTo("Blanket");
+        assertThat(names(initial)).containsExactly("Bib", "Onesie", "Rattle");
+        assertThat(initial.row(7)).isNegative();
+    }
+
+    @Test
+    void seeksByNameAndIdAcrossDuplicateNames() {
+        CatalogEngine.Snapshot.Builder builder = new CatalogEngine.Snapshot.Builder();
+        for (int id = 1; id <= 6; id++) {
+            builder.add(id, id % 2 == 0 ? "Bottle" : "Cup", "", ProductCategory.FEEDING, 100, "/images/x.jpg", 1, 0);
+        }
+        CatalogEngine.Snapshot snapshot = builder.build();
+
+        assertThat(snapshot.byName(0)).extracting(Product::getId).containsExactly(2L, 4L, 6L, 1L, 3L, 5L);
+        assertThat(snapshot.byName(snapshot.positionAfter("Bottle", 4))).extracting(Product::getId)
+                .containsExactly(6L, 1L, 3L, 5L);
+        assertThat(snapshot.byName(snapshot.positionAfter("Cup", 5))).isEmpty();
+    }
+
+    private static Product product(long id, String name, long cents) {
+        return new Product(id, name, "", ProductCategory.BATH, BigDecimal.valueOf(cents, 2), "/images/x.jpg", 1, 0);
+    }
+
+    private static List<String> names(CatalogEngine.Snapshot snapshot) {
+        return snapshot.byName(0).stream().map(Product::getName).toList();
+    }
+}
@@ -0,0 +1,60 @@
+package com.babyshop.catalog;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CatalogSnapshotTest {
+
+    @Test
+    void roundTripsRowsAcrossChunksInOrder() throws IOException {
+        ProductCategory[] categories = ProductCategory.values();
+        List<CatalogSnapshot.Row> rows = new ArrayList<>();
+        for (int n = 0; n < 2 * CatalogSnapshot.CHUNK_ROWS + 17; n++) {
+            rows.add(new CatalogSnapshot.Row(n * 3L + (n % 2 == 0 ? 1 : 100_000), "Bébé Rattle №" + n,
+                    n % 5 == 0 ? "" : "Soft, washable – " + n, categories[n % categories.length],
+                    n * 37L % 100_000, "/images/" + (n % 7) + ".jpg", n % 4 == 0 ? 0 : n));
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (CatalogSnapshot.Writer writer = new CatalogSnapshot.Writer(bytes)) {
+            for (CatalogSnapshot.Row row : rows) {
+                writer.add(row);
+            }
+        }
+
+        List<CompletableFuture<List<CatalogSnapshot.Row>>> chunks = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            CatalogSnapshot.read(new ByteArrayInputStream(bytes.toByteArray()), executor, chunks::add);
+            assertThat(chunks).hasSize(3);
+            assertThat(chunks.stream().flatMap(chunk -> chunk.join().stream()).toList()).isEqualTo(rows);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void rejectsForeignAndTruncatedFiles() throws IOException {
+        assertThatThrownBy(() -> CatalogSnapshot.read(new ByteArrayInputStream("INSERT INTO".getBytes()), Runnable::run, chunk -> {
+        })).isInstanceOf(IOException.class);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (CatalogSnapshot.Writer writer = new CatalogSnapshot.Writer(bytes)) {
+            writer.add(new CatalogSnapshot.Row(1, "Teether", "Silicone.", ProductCategory.TOYS, 499, "/images/t.jpg", 3));
+        }
+        byte[] truncated = Arrays.copyOf(bytes.toByteArray(), bytes.size() - 4);
+        assertThatThrownBy(() -> CatalogSnapshot.read(new ByteArrayInputStream(truncated), Runnable::run, chunk -> {
+        })).isInstanceOf(IOException.class);
+    }
+}
@@ -0,0 +1,26 @@
+package com.babyshop.catalog;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductCursorTest {
+
+    @Test
+    void roundTripsOffsetsAndRejectsNegativeOnes() {
+        ProductCursor cursor = ProductCursor.decode(ProductCursor.atOffset(40).encode());
+        assertThat(cursor.isSeek()).isFalse();
+        assertThat(cursor.offset()).isEqualTo(40);
+
+        assertThat(ProductCursor.decode(token("o-1"))).isNull();
+        assertThat(ProductCursor.decode(token("o-2147483648"))).isNull();
+        assertThat(ProductCursor.decode(token("o"))).isNull();
+    }
+
+    private static String token(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
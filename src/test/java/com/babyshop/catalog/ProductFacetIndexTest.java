@@ -0,0 +1,66 @@
+package com.babyshop.catalog;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class ProductFacetIndexTest {
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    void pagesThroughPriceAndNewestOrdersWithinAPriceRange() {
+        List<Product> all = productRepository.findAll();
+        Comparator<Product> byName = Comparator.comparing(Product::getName).thenComparing(Product::getId);
+
+        assertThat(ids(allPages(ProductFilter.NONE, ProductSort.PRICE_ASC))).containsExactlyElementsOf(ids(
+                all.stream().sorted(Comparator.comparing(Product::getPrice).thenComparing(byName)).toList()));
+        assertThat(ids(allPages(ProductFilter.NONE, ProductSort.PRICE_DESC))).containsExactlyElementsOf(ids(
+                all.stream().sorted(Comparator.comparing(Product::getPrice).reversed().thenComparing(byName)).toList()));
+        assertThat(ids(allPages(ProductFilter.NONE, ProductSort.NEWEST))).containsExactlyElementsOf(ids(
+                all.stream().sorted(Comparator.comparing(Product::getId).reversed()).toList()));
+
+        BigDecimal min = new BigDecimal("10.00");
+        BigDecimal max = new BigDecimal("20.00");
+        ProductFilter range = ProductFilter.of(null, null, false, min, max);
+        List<Product> inRange = all.stream()
+                .filter(p -> p.getPrice().compareTo(min) >= 0 && p.getPrice().compareTo(max) <= 0)
+                .toList();
+        assertThat(inRange).isNotEmpty();
+        for (ProductSort sort : ProductSort.values()) {
+            assertThat(ids(allPages(range, sort))).containsExactlyInAnyOrderElementsOf(ids(inRange));
+        }
+        ProductPage first = productService.listPage(ProductQuery.of(null, null, 3, range, ProductSort.PRICE_DESC));
+        int counted = 0;
+        for (ProductCategory category : ProductCategory.values()) {
+            counted += first.facets().category(category);
+        }
+        assertThat(counted).isEqualTo(inRange.size());
+    }
+
+    private List<Product> allPages(ProductFilter filter, ProductSort sort) {
+        List<Product> products = new ArrayList<>();
+        String after = null;
+        do {
+            ProductPage page = productService.listPage(ProductQuery.of(null, after, 4, filter, sort));
+            products.addAll(page.items());
+            after = page.nextCursor();
+        } while (after != null);
+        return products;
+    }
+
+    private static List<Long> ids(List<Product> products) {
+        return products.stream().map(Product::getId).toList();
+    }
+}
@@ -0,0 +1,50 @@
+package com.babyshop.catalog;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class ProductSearchIndexTest {
+    @Autowired
+    private ProductSearchIndex searchIndex;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    void matchesWholeWordsPrefixesAndTypos() {
+        assertThat(searchIndex.search("bottle")).isNotEmpty()
+                .allSatisfy(p -> assertThat(p.getName() + " " + p.getDescription()).containsIgnoringCase("bottle"));
+        assertThat(names(searchIndex.search("anti col"))).contains("Philips Avent Anti-Colic Baby Bottle 8oz");
+        assertThat(names(searchIndex.search("botle"))).isEqualTo(names(searchIndex.search("bottle")));
+        assertThat(searchIndex.search("browns")).extracting(Product::getName).contains("Dr. Brown's Options+ Anti-Colic Baby Bottle 8oz");
+        assertThat(searchIndex.search("bottle zzzz")).isEmpty();
+    }
+
+    @Test
+    void ranksNameMatchesAboveDescriptionMatches() {
+        List<Product> hits = searchIndex.search("towel");
+        assertThat(hits).isNotEmpty();
+        assertThat(hits.get(0).getName()).containsIgnoringCase("towel");
+    }
+
+    @Test
+    void followsProductWrites() {
+        Product saved = productRepository.save(new Product("Quokka Plush Rattle", "Soft plush rattle.",
+                ProductCategory.TOYS, new BigDecimal("9.99"), "/images/quokka.jpg", 12));
+        assertThat(searchIndex.search("quokka")).extracting(Product::getId).containsExactly(saved.getId());
+
+        productRepository.delete(saved);
+        assertThat(searchIndex.search("quokka")).isEmpty();
+    }
+
+    private static List<String> names(List<Product> products) {
+        return products.stream().map(Product::getName).toList();
+    }
+}
@@ -0,0 +1,67 @@
+package com.babyshop.catalog;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class ProductServiceTest {
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductSearchIndex searchIndex;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Test
+    void cachesSearchesUntilAProductChanges() {
+        ProductQuery query = ProductQuery.of("bottle", null, null, ProductFilter.of(null, null, false), null);
+        List<Product> listing = productService.listProducts(Optional.of("Bottle "));
+        ProductPage page = productService.listPage(query);
+
+        assertThat(listing).isNotEmpty();
+        assertThat(productService.listProducts(Optional.of("bottle"))).isSameAs(listing);
+        assertThat(productService.listPage(query)).isSameAs(page);
+
+        Product added = productRepository.save(new Product("Glass Bottle Brush", "Cleans bottles.",
+                ProductCategory.FEEDING, new BigDecimal("5.00"), "/images/brush.jpg", 4));
+        try {
+            assertThat(productService.listProducts(Optional.of("bottle"))).isNotSameAs(listing)
+                    .extracting(Product::getId).contains(added.getId());
+            assertThat(productService.listPage(query)).isNotSameAs(page);
+        } finally {
+            productRepository.delete(added);
+        }
+    }
+
+    @Test
+    void neverCachesSearchesAnsweredBeforeTheIndexIsReady() {
+        cacheManager.getCache(CatalogCacheConfig.PRODUCT_LISTINGS).clear();
+        ProductQuery query = ProductQuery.of("bottle", null, null, ProductFilter.of(null, null, false), null);
+        ReflectionTestUtils.setField(searchIndex, "ready", false);
+        try {
+            List<Product> listing = productService.listProducts(Optional.of("bottle"));
+            assertThat(listing).isNotEmpty();
+            assertThat(productService.listProducts(Optional.of("bottle"))).isNotSameAs(listing);
+            assertThat(productService.listPage(query)).isNotSameAs(productService.listPage(query));
+        } finally {
+            ReflectionTestUtils.setField(searchIndex, "ready", true);
+        }
+
+        List<Product> indexed = productService.listProducts(Optional.of("bottle"));
+        assertThat(productService.listProducts(Optional.of("bottle"))).isSameAs(indexed);
+    }
+}
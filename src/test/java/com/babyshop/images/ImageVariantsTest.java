@@ -0,0 +1,66 @@
+package com.babyshop.images;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ImageVariantsTest {
+    private static final String BOTTLE = "/images/Philips%20Avent%20Anti-Colic%20Baby%20Bottle%208oz.jpg";
+
+    @Test
+    void buildsHashedVariantsOnceAndResolvesStoredUrls(@TempDir Path directory) throws Exception {
+        ImageVariants images = new ImageVariants(directory, new int[]{120, 240}, 0.8f);
+
+        assertThat(images.srcset(BOTTLE)).matches("/img/philips-avent-anti-colic-baby-bottle-8oz-120-[0-9a-f]{12}\\.jpg 120w, "
+                + "/img/philips-avent-anti-colic-baby-bottle-8oz-240-[0-9a-f]{12}\\.jpg 240w");
+        String thumbnail = images.src(BOTTLE, 100);
+        assertThat(Files.size(directory.resolve(thumbnail.substring(ImageVariants.URL_PREFIX.length()))))
+                .isLessThan(Files.size(Path.of("src/main/resources/static/images/Philips Avent Anti-Colic Baby Bottle 8oz.jpg")));
+        assertThat(images.src("/images/missing.jpg", 100)).isEqualTo("/images/missing.jpg");
+        assertThat(images.srcset("/images/missing.jpg")).isNull();
+
+        long modified = Files.getLastModifiedTime(directory.resolve(thumbnail.substring(ImageVariants.URL_PREFIX.length()))).toMillis();
+        ImageVariants reloaded = new ImageVariants(directory, new int[]{120, 240}, 0.8f);
+        assertThat(reloaded.src(BOTTLE, 100)).isEqualTo(thumbnail);
+        assertThat(Files.getLastModifiedTime(directory.resolve(thumbnail.substring(ImageVariants.URL_PREFIX.length()))).toMillis())
+                .isEqualTo(modified);
+    }
+
+    @Test
+    void listsSourcesNarrowerThanTheFirstWidthAtTheirOwnWidth(@TempDir Path directory) throws Exception {
+        Path source = Path.of("src/main/resources/static/images/Philips Avent Anti-Colic Baby Bottle 8oz.jpg");
+        int sourceWidth = ImageIO.read(source.toFile()).getWidth();
+        int[] widths = {sourceWidth + 100, sourceWidth + 200};
+
+        ImageVariants images = new ImageVariants(directory, widths, 0.8f);
+
+        String srcset = images.srcset(BOTTLE);
+        assertThat(srcset).matches("/img/philips-avent-anti-colic-baby-bottle-8oz-" + sourceWidth + "-[0-9a-f]{12}\\.jpg "
+                + sourceWidth + "w");
+        BufferedImage variant = ImageIO.read(directory.resolve(images.src(BOTTLE, 100)
+                .substring(ImageVariants.URL_PREFIX.length())).toFile());
+        assertThat(variant.getWidth()).isEqualTo(sourceWidth);
+        assertThat(new ImageVariants(directory, widths, 0.8f).srcset(BOTTLE)).isEqualTo(srcset);
+    }
+
+    @Test
+    void keepsServingVariantsAfterTheWidthsChange(@TempDir Path directory) throws Exception {
+        Path source = Path.of("src/main/resources/static/images/Philips Avent Anti-Colic Baby Bottle 8oz.jpg");
+        int sourceWidth = ImageIO.read(source.toFile()).getWidth();
+        // The second width is skipped (never upscaled) and remembered as such in the manifest.
+        new ImageVariants(directory, new int[]{sourceWidth - 10, sourceWidth + 100}, 0.8f);
+
+        // Now the skipped width comes first.
+        ImageVariants images = new ImageVariants(directory, new int[]{sourceWidth + 100, sourceWidth + 200}, 0.8f);
+
+        assertThat(images.src(BOTTLE, 100)).matches("/img/philips-avent-anti-colic-baby-bottle-8oz-" + sourceWidth
+                + "-[0-9a-f]{12}\\.jpg");
+        assertThat(images.srcset(BOTTLE)).endsWith(" " + sourceWidth + "w");
+    }
+}
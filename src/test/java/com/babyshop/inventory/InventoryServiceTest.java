@@ -0,0 +1,119 @@
+package com.babyshop.inventory;
+
+import com.babyshop.BabyShopApplication;
+import com.babyshop.catalog.CatalogVersion;
+import com.babyshop.catalog.Product;
+import com.babyshop.catalog.ProductRepository;
+import jakarta.annotation.PreDestroy;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class InventoryServiceTest {
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    @Test
+    void writesSalesBackQuietlyUntilAProductSellsOut() {
+        long productId = 3;
+        int stock = productRepository.findById(productId).orElseThrow().getStockQuantity();
+
+        inventoryService.confirm(9201, Map.of(productId, 2));
+        long version = catalogVersion.of(productId);
+        inventoryService.reconcile();
+
+        assertThat(productRepository.findById(productId).orElseThrow().getStockQuantity()).isEqualTo(stock - 2);
+        assertThat(catalogVersion.of(productId)).isEqualTo(version);
+
+        inventoryService.confirm(9202, Map.of(productId, stock - 2));
+        inventoryService.reconcile();
+
+        assertThat(productRepository.findById(productId).orElseThrow().isInStock()).isFalse();
+        assertThat(catalogVersion.of(productId)).isGreaterThan(version);
+        assertThat(inventoryService.available(productId)).isZero();
+
+        Product restocked = productRepository.findById(productId).orElseThrow();
+        restocked.adjustStock(stock);
+        productRepository.save(restocked);
+        assertThat(inventoryService.available(productId)).isEqualTo(stock);
+    }
+
+    @Test
+    void takesNothingWhenAProductIsUnknown() {
+        long productId = 5;
+        long available = inventoryService.available(productId);
+
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
+        quantities.put(productId, 2);
+        quantities.put(987_654L, 1);
+        assertThatThrownBy(() -> inventoryService.reserve(9301, quantities))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(inventoryService.available(productId)).isEqualTo(available);
+        inventoryService.release(9301);
+        assertThat(inventoryService.available(productId)).isEqualTo(available);
+    }
+
+    @Test
+    void writesBackSalesConfirmedWhileShuttingDown(@TempDir Path data) {
+        String url = "jdbc:h2:mem:shutdown-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1;MODE=PostgreSQL";
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(BabyShopApplication.class,
+                DrainingOrderWriter.class)
+                .run("--server.port=0", "--spring.datasource.url=" + url, "--spring.jpa.hibernate.ddl-auto=create",
+                        "--app.inventory.reconcile-interval=1h", "--app.recommendations.enabled=false",
+                        "--app.orders.intake.wal-path=" + data.resolve("order-intake.wal"),
+                        "--app.reports.snapshot-path=" + data.resolve("sales-report.bin"),
+                        "--app.images.directory=" + data.resolve("images"),
+                        "--app.assets.directory=" + data.resolve("assets"));
+        JdbcTemplate jdbc = new JdbcTemplate(new DriverManagerDataSource(url, "sa", ""));
+        int partial = jdbc.queryForObject("select stock_quantity from products where id = 3", Integer.class);
+        int soldOut = jdbc.queryForObject("select stock_quantity from products where id = 4", Integer.class);
+        context.getBean(InventoryService.class).confirm(9401, Map.of(3L, 1));
+
+        context.close();
+
+        assertThat(jdbc.queryForObject("select stock_quantity from products where id = 3", Integer.class))
+                .isEqualTo(partial - 2);
+        assertThat(jdbc.queryForMap("select stock_quantity, in_stock from products where id = 4"))
+                .containsEntry("STOCK_QUANTITY", 0).containsEntry("IN_STOCK", false);
+        assertThat(soldOut).isPositive();
+    }
+
+    /**
+     * Stands in for an order writer that persists its last orders while the application shuts down.
+     */
+    static class DrainingOrderWriter {
+        private final InventoryService inventoryService;
+
+        DrainingOrderWriter(InventoryService inventoryService) {
+            this.inventoryService = inventoryService;
+        }
+
+        @PreDestroy
+        void stop() {
+            int stock = (int) inventoryService.available(4);
+            inventoryService.confirm(9402, Map.of(3L, 1));
+            inventoryService.confirm(9403, Map.of(4L, stock));
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.babyshop.inventory;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StockCounterTest {
+
+    @Test
+    void neverOversellsUnderContention() throws Exception {
+        StockCounter counter = new StockCounter(10_000, 8, 1);
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<Long>> results = new ArrayList<>();
+            for (int t = 0; t < 16; t++) {
+                int quantity = 1 + t % 3;
+                results.add(pool.submit(() -> {
+                    long taken = 0;
+                    for (int i = 1; counter.tryTake(quantity); i++) {
+                        taken += quantity;
+                        if (i % 10 == 0) {
+                            counter.put(quantity);
+                            taken -= quantity;
+                        }
+                    }
+                    return taken;
+                }));
+            }
+            long total = 0;
+            for (Future<Long> result : results) {
+                total += result.get();
+            }
+            assertThat(total + counter.available()).isEqualTo(10_000);
+            assertThat(counter.available()).isLessThan(3);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void takesAcrossStripesAndPartially() {
+        StockCounter counter = new StockCounter(7, 4, 0);
+        assertThat(counter.stripes()).isEqualTo(4);
+        assertThat(counter.tryTake(7)).isTrue();
+        assertThat(counter.tryTake(1)).isFalse();
+
+        counter.put(5);
+        assertThat(counter.tryTake(6)).isFalse();
+        assertThat(counter.takeUpTo(6)).isEqualTo(5);
+        assertThat(counter.available()).isZero();
+    }
+}
@@ -0,0 +1,45 @@
+package com.babyshop.metrics;
+
+import com.babyshop.catalog.ProductRepository;
+import com.babyshop.catalog.ProductService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class MetricsConfigTest {
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void timesServiceMethods() {
+        long id = productRepository.findAll().get(0).getId();
+        long before = count();
+        productService.getById(id);
+        assertThat(count()).isEqualTo(before + 1);
+    }
+
+    @Test
+    void countsHibernateStatementsInScopeOnly() {
+        productRepository.count();
+        StatementCounter.start();
+        productRepository.count();
+        productRepository.findAll();
+        assertThat(StatementCounter.stop()).isEqualTo(2);
+        assertThat(StatementCounter.stop()).isZero();
+    }
+
+    private long count() {
+        var timer = meterRegistry.find("babyshop.catalog.get").timer();
+        return timer == null ? 0 : timer.count();
+    }
+}
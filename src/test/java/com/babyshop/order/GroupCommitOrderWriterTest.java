@@ -0,0 +1,74 @@
+package com.babyshop.order;
+
+import com.babyshop.catalog.ProductCategory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {"app.orders.group-commit.enabled=true", "app.orders.group-commit.max-wait=500ms"})
+class GroupCommitOrderWriterTest {
+    @Autowired
+    private GroupCommitOrderWriter writer;
+
+    @Autowired
+    private CustomerOrderRepository customerOrderRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void retriesAFailedGroupWithFreshEntitiesAndWritesDirectlyAfterStop() throws Exception {
+        customerOrderRepository.save(order(9101, "Taken").toCustomerOrder());
+
+        ExecutorService checkouts = Executors.newFixedThreadPool(3);
+        try {
+            List<CompletableFuture<CustomerOrder>> writes = List.of(
+                    CompletableFuture.supplyAsync(() -> writer.write(order(9102, "First")), checkouts),
+                    CompletableFuture.supplyAsync(() -> writer.write(order(9101, "Duplicate")), checkouts),
+                    CompletableFuture.supplyAsync(() -> writer.write(order(9103, "Second")), checkouts));
+
+            assertThat(writes.get(0).get(10, TimeUnit.SECONDS).getId()).isEqualTo(9102L);
+            assertThat(writes.get(2).get(10, TimeUnit.SECONDS).getId()).isEqualTo(9103L);
+            assertThat(writes.get(1)).failsWithin(10, TimeUnit.SECONDS);
+        } finally {
+            checkouts.shutdownNow();
+        }
+        assertThat(customerOrderRepository.findById(9101L)).get()
+                .extracting(CustomerOrder::getFullName).isEqualTo("Taken");
+        assertThat(customerOrderRepository.findAllById(List.of(9102L, 9103L))).hasSize(2);
+
+        writer.stop();
+        assertThat(writer.write(order(9104, "After stop")).getId()).isEqualTo(9104L);
+    }
+
+    @Test
+    void waitsForAGroupStillInFlightInsteadOfFailingTheOrder() throws Exception {
+        // The writer holds each group open for 300ms, far longer than the 1ms checkout timeout.
+        GroupCommitOrderWriter slow = new GroupCommitOrderWriter(customerOrderRepository, transactionTemplate, true, 64,
+                Duration.ofMillis(300), Duration.ofMillis(1));
+        slow.start();
+        try {
+            assertThat(slow.write(order(9201, "Slow group")).getId()).isEqualTo(9201L);
+        } finally {
+            slow.stop();
+        }
+        assertThat(customerOrderRepository.findById(9201L)).isPresent();
+    }
+
+    private static PendingOrder order(long id, String fullName) {
+        return new PendingOrder(id, null, Instant.now(), fullName, "group@example.com", "1 Batch Rd", "San Jose",
+                "95112", List.of(new PendingOrder.Line(7, "Baby Bottle", ProductCategory.FEEDING, 1099, 2),
+                        new PendingOrder.Line(8, "Bib", ProductCategory.FEEDING, 499, 1)));
+    }
+}
@@ -0,0 +1,62 @@
+package com.babyshop.order;
+
+import com.babyshop.catalog.ProductCategory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class OrderHistoryServiceTest {
+    @Autowired
+    private OrderHistoryService orderHistoryService;
+
+    @Autowired
+    private CustomerOrderRepository customerOrderRepository;
+
+    @Test
+    void pagesNewestFirstAcrossEqualTimestampsWithTheirLines() {
+        Instant noon = Instant.parse("2026-03-01T12:00:00Z");
+        save(9001, 77L, noon.minusSeconds(60), "history@example.com", 2);
+        save(9002, 77L, noon, "history@example.com", 1);
+        save(9003, 77L, noon, "history@example.com", 3);
+        save(9004, 77L, noon.plusSeconds(60), "history@example.com", 1);
+        save(9005, 78L, noon.plusSeconds(120), "someone-else@example.com", 1);
+        // A guest checkout under the account's email is not the account's order.
+        save(9006, null, noon.plusSeconds(180), "history@example.com", 1);
+
+        List<Long> ids = new ArrayList<>();
+        List<Integer> lineCounts = new ArrayList<>();
+        String after = null;
+        do {
+            OrderHistoryPage page = orderHistoryService.page(77L, after, 2);
+            assertThat(page.orders()).hasSizeLessThanOrEqualTo(2);
+            page.orders().forEach(order -> {
+                ids.add(order.id());
+                lineCounts.add(order.lines().size());
+            });
+            after = page.nextCursor();
+        } while (after != null);
+
+        assertThat(ids).containsExactly(9004L, 9003L, 9002L, 9001L);
+        assertThat(lineCounts).containsExactly(1, 3, 1, 2);
+        OrderSummary first = orderHistoryService.page(77L, null, 1).orders().get(0);
+        assertThat(first.lines().get(0).lineTotal()).isEqualByComparingTo("2.50");
+        assertThat(first.total()).isEqualByComparingTo("2.50");
+    }
+
+    private void save(long id, Long userId, Instant createdAt, String email, int lines) {
+        CustomerOrder order = new CustomerOrder(id, userId, createdAt, "Ada Lovelace", email, "1 Main St", "Springfield",
+                "12345", BigDecimal.valueOf(250L * lines, 2));
+        for (int i = 0; i < lines; i++) {
+            order.addItem(new OrderItem(1L + i, "Item " + i, ProductCategory.TOYS, new BigDecimal("1.25"), 2));
+        }
+        customerOrderRepository.save(order);
+    }
+}
@@ -0,0 +1,64 @@
+package com.babyshop.order;
+
+import com.babyshop.catalog.ProductCategory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OrderIntakeLogTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void replaysOrdersThatWereNotMarkedDone() throws Exception {
+        Path wal = dir.resolve("intake.wal");
+        try (OrderIntakeLog log = OrderIntakeLog.open(wal, 64 * 1024, true)) {
+            log.append(order(1));
+            log.append(order(2));
+            log.append(order(3));
+            log.markDone(2);
+        }
+
+        try (OrderIntakeLog log = OrderIntakeLog.open(wal, 64 * 1024, true)) {
+            List<PendingOrder> outstanding = log.outstanding();
+            assertThat(outstanding).extracting(PendingOrder::id).containsExactly(1L, 3L);
+            assertThat(outstanding.get(0)).isEqualTo(order(1));
+        }
+    }
+
+    @Test
+    void compactsWhenFullAndKeepsOutstandingOrders() throws Exception {
+        Path wal = dir.resolve("intake.wal");
+        try (OrderIntakeLog log = OrderIntakeLog.open(wal, 4 * 1024, false)) {
+            log.append(order(1));
+            for (long id = 2; id < 200; id++) {
+                log.append(order(id));
+                log.markDone(id);
+            }
+        }
+
+        try (OrderIntakeLog log = OrderIntakeLog.open(wal, 4 * 1024, false)) {
+            assertThat(log.outstanding()).extracting(PendingOrder::id).containsExactly(1L);
+        }
+    }
+
+    @Test
+    void recordsCategoriesByName() {
+        byte[] payload = order(1).encode();
+
+        assertThat(new String(payload, StandardCharsets.UTF_8)).contains("FEEDING");
+        assertThat(PendingOrder.decode(payload).lines().get(0).category()).isEqualTo(ProductCategory.FEEDING);
+    }
+
+    private static PendingOrder order(long id) {
+        return new PendingOrder(id, id % 2 == 0 ? null : 42L, Instant.ofEpochMilli(1_700_000_000_000L + id),
+                "Alex Parent", "alex@example.com", "123 Baby St", "San Jose", "95112",
+                List.of(new PendingOrder.Line(7, "Baby Bottle", ProductCategory.FEEDING, 1099, 2)));
+    }
+}
@@ -0,0 +1,126 @@
+package com.babyshop.recommendations;
+
+import com.babyshop.catalog.Product;
+import com.babyshop.catalog.ProductCategory;
+import com.babyshop.catalog.ProductChangedEvent;
+import com.babyshop.order.OrderPlacedEvent;
+import com.babyshop.order.PendingOrder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RelatedProductsTest {
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void createTables() {
+        database = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2).generateUniqueName(true).build();
+        jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.execute("create table products (id bigint primary key, category varchar(32))");
+        jdbcTemplate.execute("create table order_items (id bigint auto_increment primary key, order_id bigint, product_id bigint)");
+        product(1, ProductCategory.FEEDING);
+        product(2, ProductCategory.FEEDING);
+        product(3, ProductCategory.TOYS);
+        product(4, ProductCategory.TOYS);
+        product(5, ProductCategory.TOYS);
+        product(6, ProductCategory.BATH);
+    }
+
+    @AfterEach
+    void dropDatabase() {
+        database.shutdown();
+    }
+
+    @Test
+    void ranksCoBoughtProductsAndTopsUpFromTheCategory() {
+        order(100, 1, 3);
+        order(101, 1, 3, 2);
+        order(102, 1, 6);
+        order(103, 4, 5);
+        order(104, 5);
+        RelatedProducts related = new RelatedProducts(jdbcTemplate, null, true, 3, Duration.ofMinutes(5));
+
+        related.load();
+
+        assertThat(related.of(1).ids()).containsExactly(3, 2, 6);
+        assertThat(related.of(1).coBought()).isEqualTo(3);
+        assertThat(related.of(3).coBoughtIds()).containsExactly(1, 2);
+        assertThat(related.of(3).bestSellerIds()).containsExactly(5);
+        assertThat(related.of(6).ids()).containsExactly(1);
+        long generation = related.generation();
+
+        related.onOrderPlaced(placed(200, 1, 6));
+        related.onOrderPlaced(placed(201, 1, 6));
+        jdbcTemplate.update("delete from products where id = 3");
+        Product removed = new Product("Rattle", "", ProductCategory.TOYS, BigDecimal.ONE, "/images/x.jpg", 1);
+        related.onProductChanged(new ProductChangedEvent(removed, true));
+        related.refresh(false);
+
+        assertThat(related.of(1).ids()).containsExactly(6, 2);
+        assertThat(related.of(3).ids()).isEmpty();
+        assertThat(related.generation()).isGreaterThan(generation);
+    }
+
+    @Test
+    void fallsBackOnlyToProductsThatWereOrdered() {
+        RelatedProducts related = new RelatedProducts(jdbcTemplate, null, true, 3, Duration.ofMinutes(5));
+
+        related.load();
+
+        assertThat(related.of(1).ids()).isEmpty();
+        assertThat(related.of(5).ids()).isEmpty();
+
+        related.onOrderPlaced(placed(200, 3));
+        related.onOrderPlaced(placed(201, 4));
+        related.onOrderPlaced(placed(202, 4));
+        related.refresh(false);
+
+        assertThat(related.of(5).bestSellerIds()).containsExactly(4, 3);
+        assertThat(related.of(5).coBoughtIds()).isEmpty();
+        assertThat(related.of(4).bestSellerIds()).containsExactly(3);
+        assertThat(related.of(1).ids()).isEmpty();
+    }
+
+    @Test
+    void countsManyKeysInOneRow() {
+        LongIntMap map = new LongIntMap();
+        for (long key = -500; key < 500; key++) {
+            map.add(key * 7919, 1);
+            map.add(key * 7919, (int) Math.abs(key));
+        }
+        assertThat(map.size()).isEqualTo(1000);
+        assertThat(map.get(-3 * 7919)).isEqualTo(4);
+        assertThat(map.get(1)).isZero();
+    }
+
+    private void product(long id, ProductCategory category) {
+        jdbcTemplate.update("insert into products (id, category) values (?, ?)", id, category.name());
+    }
+
+    private void order(long orderId, long... productIds) {
+        for (long productId : productIds) {
+            jdbcTemplate.update("insert into order_items (order_id, product_id) values (?, ?)", orderId, productId);
+        }
+    }
+
+    private static OrderPlacedEvent placed(long orderId, long... productIds) {
+        List<PendingOrder.Line> lines = Arrays.stream(productIds)
+                .mapToObj(id -> new PendingOrder.Line(id, "Product " + id, ProductCategory.TOYS, 100, 1))
+                .toList();
+        return new OrderPlacedEvent(new PendingOrder(orderId, null, Instant.now(), "Ada", "ada@example.com",
+                "1 Main St", "Springfield", "12345", lines));
+    }
+}
@@ -0,0 +1,82 @@
+package com.babyshop.reporting;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OrderLineExportTest {
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void createTables() {
+        database = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2).generateUniqueName(true).build();
+        jdbcTemplate = new JdbcTemplate(database);
+        jdbcTemplate.execute("create table orders (id bigint primary key, created_at timestamp with time zone)");
+        jdbcTemplate.execute("""
+                create table order_items (id bigint auto_increment primary key, order_id bigint, product_id bigint,
+                    product_name varchar(255), category varchar(32), unit_price numeric(12, 2), quantity int)
+                """);
+    }
+
+    @AfterEach
+    void dropDatabase() {
+        database.shutdown();
+    }
+
+    @Test
+    void writesTheLinesOfOrdersInTheRangeAsGzippedCsv() throws Exception {
+        insertOrder(1, "2026-02-28T23:30:00Z");
+        insertOrder(2, "2026-03-01T09:00:00Z");
+        insertOrder(3, "2026-03-01T23:59:59Z");
+        insertOrder(4, "2026-03-02T00:00:00Z");
+        insertLine(1, 10, "Bib", "FEEDING", "4.99", 1);
+        insertLine(2, 20, "Rattle, \"wooden\"", "TOYS", "8.99", 2);
+        insertLine(2, 10, "Bib", "FEEDING", "4.99", 1);
+        insertLine(3, 30, "Onesie", "CLOTHING", "12.50", 3);
+        insertLine(4, 10, "Bib", "FEEDING", "4.99", 1);
+
+        OrderLineExport export = new OrderLineExport(jdbcTemplate,
+                new TransactionTemplate(new DataSourceTransactionManager(database)), ZoneId.of("UTC"), 2);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long rows = export.exportCsv(LocalDate.parse("2026-03-01"), LocalDate.parse("2026-03-01"), out);
+
+        String csv = new String(new GZIPInputStream(new ByteArrayInputStream(out.toByteArray())).readAllBytes(),
+                StandardCharsets.UTF_8);
+        assertThat(rows).isEqualTo(3);
+        assertThat(csv.split("\n")).containsExactly(
+                OrderLineExport.HEADER.strip(),
+                "2,2026-03-01T09:00:00Z,20,\"Rattle, \"\"wooden\"\"\",TOYS,8.99,2,17.98",
+                "2,2026-03-01T09:00:00Z,10,Bib,FEEDING,4.99,1,4.99",
+                "3,2026-03-01T23:59:59Z,30,Onesie,CLOTHING,12.50,3,37.50");
+    }
+
+    private void insertOrder(long id, String createdAt) {
+        jdbcTemplate.update("insert into orders (id, created_at) values (?, ?)", id, Timestamp.from(Instant.parse(createdAt)));
+    }
+
+    private void insertLine(long orderId, long productId, String name, String category, String price, int quantity) {
+        jdbcTemplate.update("""
+                insert into order_items (order_id, product_id, product_name, category, unit_price, quantity)
+                values (?, ?, ?, ?, ?, ?)
+                """, orderId, productId, name, category, new BigDecimal(price), quantity);
+    }
+}
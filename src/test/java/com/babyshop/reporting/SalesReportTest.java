@@ -0,0 +1,154 @@
+package com.babyshop.reporting;
+
+import com.babyshop.catalog.ProductCategory;
+import com.babyshop.order.OrderPlacedEvent;
+import com.babyshop.order.PendingOrder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SalesReportTest {
+    private static final PendingOrder.Line BIB = new PendingOrder.Line(10, "Bib", ProductCategory.FEEDING, 499, 2);
+    private static final PendingOrder.Line RATTLE = new PendingOrder.Line(20, "Rattle", ProductCategory.TOYS, 899, 1);
+
+    @TempDir
+    Path directory;
+
+    private EmbeddedDatabase database;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void createDatabase() {
+        database = newDatabase();
+    }
+
+    @AfterEach
+    void dropDatabase() {
+        database.shutdown();
+    }
+
+    @Test
+    void countsEachOrderOnceAcrossSnapshotsAndCatchUp() throws Exception {
+        PendingOrder first = order(1, BIB);
+        insert(first);
+
+        SalesReport report = report();
+        report.start();
+        // The startup scan already counted it.
+        report.onOrderPlaced(new OrderPlacedEvent(first));
+        place(report, order(2, new PendingOrder.Line(20, "Rattle", ProductCategory.TOYS, 899, 3),
+                new PendingOrder.Line(10, "Bib", ProductCategory.FEEDING, 499, 1)));
+        report.stop();
+
+        insert(order(3, RATTLE));
+        SalesReport restarted = report();
+        restarted.start();
+        SalesReport.View view = restarted.view(7);
+        restarted.stop();
+
+        assertThat(view.orders()).isEqualTo(3);
+        assertThat(view.units()).isEqualTo(7);
+        assertThat(view.revenue()).isEqualByComparingTo("50.93");
+        assertThat(view.days()).hasSize(7);
+        assertThat(view.days().get(6).orders()).isEqualTo(3);
+        assertThat(view.categories()).filteredOn(c -> c.category() == ProductCategory.TOYS)
+                .singleElement().satisfies(c -> assertThat(c.units()).isEqualTo(4));
+        assertThat(view.topProducts()).extracting(SalesReport.ProductSales::name).containsExactly("Rattle", "Bib");
+    }
+
+    @Test
+    void recoversOrdersCommittedBelowTheHighWaterMarkAfterTheSnapshot() throws Exception {
+        SalesReport report = report();
+        report.start();
+        place(report, order(51, BIB));
+        place(report, order(101, BIB));
+        report.stop();
+
+        // Order 52 came from an earlier id block and committed after the snapshot, with no event.
+        insert(order(52, RATTLE));
+        SalesReport restarted = report();
+        restarted.start();
+        SalesReport.View view = restarted.view(7);
+        restarted.stop();
+
+        assertThat(view.orders()).isEqualTo(3);
+        assertThat(view.units()).isEqualTo(5);
+    }
+
+    @Test
+    void rebuildsWhenTheSnapshotBelongsToAnotherDatabase() throws Exception {
+        SalesReport report = report();
+        report.start();
+        place(report, order(1, BIB));
+        place(report, order(2, BIB));
+        report.stop();
+
+        database.shutdown();
+        database = newDatabase();
+        insert(order(1, RATTLE));
+        SalesReport restarted = report();
+        restarted.start();
+        SalesReport.View view = restarted.view(7);
+        restarted.stop();
+
+        assertThat(view.orders()).isEqualTo(1);
+        assertThat(view.topProducts()).extracting(SalesReport.ProductSales::name).containsExactly("Rattle");
+    }
+
+    private EmbeddedDatabase newDatabase() {
+        EmbeddedDatabase created = new EmbeddedDatabaseBuilder().setType(EmbeddedDatabaseType.H2)
+                .generateUniqueName(true).build();
+        jdbcTemplate = new JdbcTemplate(created);
+        jdbcTemplate.execute("create table orders (id bigint primary key, created_at timestamp with time zone)");
+        jdbcTemplate.execute("""
+                create table order_items (id bigint auto_increment primary key, order_id bigint, product_id bigint,
+                    product_name varchar(255), category varchar(32), unit_price numeric(12, 2), quantity int)
+                """);
+        return created;
+    }
+
+    private SalesReport report() {
+        return new SalesReport(jdbcTemplate, ZoneOffset.UTC, 30, 5, directory.resolve("sales.bin"), Duration.ofHours(1),
+                1000);
+    }
+
+    /**
+     * Persists the order and delivers its event, as a checkout does.
+     */
+    private void place(SalesReport report, PendingOrder order) {
+        insert(order);
+        report.onOrderPlaced(new OrderPlacedEvent(order));
+    }
+
+    private void insert(PendingOrder order) {
+        jdbcTemplate.update("insert into orders (id, created_at) values (?, ?)", order.id(),
+                Timestamp.from(order.createdAt()));
+        for (PendingOrder.Line line : order.lines()) {
+            jdbcTemplate.update("""
+                    insert into order_items (order_id, product_id, product_name, category, unit_price, quantity)
+                    values (?, ?, ?, ?, ?, ?)
+                    """, order.id(), line.productId(), line.productName(), line.category().name(),
+                    line.unitPriceCents() / 100.0, line.quantity());
+        }
+    }
+
+    private static PendingOrder order(long orderId, PendingOrder.Line... lines) {
+        return new PendingOrder(orderId, null, Instant.now().truncatedTo(ChronoUnit.MILLIS), "Ada", "ada@example.com",
+                "1 Main St", "Springfield", "12345", List.of(lines));
+    }
+}
@@ -0,0 +1,72 @@
+package com.babyshop.web;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.net.URI;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "app.admin.token=s3cret-admin")
+@AutoConfigureMockMvc
+class AdminAccessFilterTest {
+    @Autowired
+    private MockMvc mvc;
+
+    @Test
+    void requiresTheAdminTokenOnAdminEndpoints() throws Exception {
+        mvc.perform(get("/admin/reports/sales"))
+                .andExpect(status().isUnauthorized())
+                .andExpect(header().string(HttpHeaders.WWW_AUTHENTICATE, "Bearer"));
+        mvc.perform(get("/admin/catalog/snapshot").header(HttpHeaders.AUTHORIZATION, "Bearer wrong"))
+                .andExpect(status().isUnauthorized());
+        mvc.perform(get("/admin/reports/sales").header(HttpHeaders.AUTHORIZATION, "Bearer s3cret-admin"))
+                .andExpect(status().isOk());
+        mvc.perform(get("/products"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void guardsAdminPathsSpelledWithParametersOrEscapes() throws Exception {
+        for (String path : new String[]{"/admin;x=1/reports/sales", "/%61dmin/reports/sales", "/admin;/catalog/cache",
+                "/admin/reports;x=1/sales", "/admin%2freports/sales", "//admin/catalog/cache",
+                "/admin/catalog/%73napshot"}) {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            MockFilterChain chain = new MockFilterChain();
+
+            new AdminAccessFilter("s3cret-admin").doFilter(request, response, chain);
+
+            assertThat(response.getStatus()).as(path).isEqualTo(401);
+            assertThat(chain.getRequest()).as(path).isNull();
+        }
+        mvc.perform(get(URI.create("/admin;x=1/reports/sales")))
+                .andExpect(status().isUnauthorized());
+        mvc.perform(get(URI.create("/%61dmin/reports/sales")))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void hidesAdminEndpointsWhenNoTokenIsConfigured() throws Exception {
+        AdminAccessFilter filter = new AdminAccessFilter("");
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/admin/reports/order-lines");
+        request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer ");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, response, chain);
+
+        assertThat(response.getStatus()).isEqualTo(404);
+        assertThat(chain.getRequest()).isNull();
+    }
+}
@@ -0,0 +1,118 @@
+package com.babyshop.web;
+
+import com.babyshop.cart.CartResolver;
+import com.babyshop.catalog.Product;
+import com.babyshop.catalog.ProductRepository;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class CatalogControllerTest {
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    void answersARevalidationWithoutBuildingThePage() throws Exception {
+        for (String page : new String[]{"/products", "/products/1"}) {
+            String etag = etag(page);
+
+            MvcResult revalidated = mvc.perform(get(page).header(HttpHeaders.IF_NONE_MATCH, etag))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string(HttpHeaders.ETAG, etag))
+                    .andReturn();
+
+            assertThat(revalidated.getModelAndView()).isNull();
+            assertThat(revalidated.getResponse().getContentAsString()).isEmpty();
+        }
+    }
+
+    @Test
+    void changesTheETagAfterAProductWrite() throws Exception {
+        String listing = etag("/products");
+        String detail = etag("/products/1");
+
+        Product product = productRepository.findById(1L).orElseThrow();
+        product.adjustStock(-1);
+        product = productRepository.save(product);
+        try {
+            assertThat(etag("/products")).isNotEqualTo(listing);
+            assertThat(etag("/products/1")).isNotEqualTo(detail);
+            mvc.perform(get("/products/1").header(HttpHeaders.IF_NONE_MATCH, detail))
+                    .andExpect(status().isOk());
+        } finally {
+            product.adjustStock(1);
+            productRepository.save(product);
+        }
+    }
+
+    @Test
+    void neverCachesAPageShowingAFlashToast() throws Exception {
+        MvcResult result = mvc.perform(get("/products").flashAttr("toast", "Bib added to cart"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-store"))
+                .andReturn();
+
+        assertThat(result.getResponse().getContentAsString()).contains("Bib added to cart");
+    }
+
+    @Test
+    void servesCatalogPagesWithoutASession() throws Exception {
+        for (String page : new String[]{"/products", "/products/1"}) {
+            MvcResult result = mvc.perform(get(page))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=0, must-revalidate, public"))
+                    .andReturn();
+
+            assertThat(result.getRequest().getSession(false)).isNull();
+            assertThat(result.getResponse().getHeader(HttpHeaders.SET_COOKIE)).isNull();
+            assertThat(result.getResponse().getContentAsString()).contains("data-nav-shared").contains("/nav.js");
+        }
+    }
+
+    @Test
+    void reportsTheVisitorsOwnCartCountUncached() throws Exception {
+        mvc.perform(get("/nav"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-store"))
+                .andExpect(jsonPath("$.cartItemCount").value(0))
+                .andExpect(jsonPath("$.loggedIn").value(false));
+
+        MvcResult added = mvc.perform(post("/cart/add").param("productId", "1").param("quantity", "2"))
+                .andExpect(status().is3xxRedirection())
+                .andReturn();
+        Cookie cart = added.getResponse().getCookie(CartResolver.COOKIE);
+        assertThat(cart).isNotNull();
+
+        mvc.perform(get("/nav").cookie(new Cookie(CartResolver.COOKIE, cart.getValue())))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-store"))
+                .andExpect(jsonPath("$.cartItemCount").value(2));
+        mvc.perform(get("/nav"))
+                .andExpect(jsonPath("$.cartItemCount").value(0));
+    }
+
+    private String etag(String page) throws Exception {
+        String etag = mvc.perform(get(page))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).isNotNull();
+        return etag;
+    }
+}
@@ -0,0 +1,74 @@
+package com.babyshop.web;
+
+import com.babyshop.catalog.Product;
+import com.babyshop.catalog.ProductCategory;
+import com.babyshop.catalog.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "spring.thymeleaf.cache=true")
+class ProductFragmentCacheTest {
+    @Autowired
+    private ProductFragmentCache fragments;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @BeforeEach
+    void bindRequest() {
+        RequestContextHolder.setRequestAttributes(
+                new ServletRequestAttributes(new MockHttpServletRequest(), new MockHttpServletResponse()));
+    }
+
+    @AfterEach
+    void unbindRequest() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void reusesMarkupUntilTheProductChanges() {
+        Product product = productRepository.save(new Product("Wombat Teether", "Silicone teether.",
+                ProductCategory.TOYS, new BigDecimal("6.50"), "/images/wombat.jpg", 3));
+
+        String card = fragments.card(product);
+        assertThat(card).contains("Wombat Teether").contains("href=\"/products/" + product.getId() + "\"");
+        assertThat(fragments.card(product)).isSameAs(card);
+        assertThat(fragments.detail(product)).contains("In stock");
+
+        product.adjustStock(-3);
+        Product soldOut = productRepository.save(product);
+        assertThat(fragments.detail(soldOut)).contains("Out of stock");
+
+        productRepository.delete(soldOut);
+    }
+
+    @Test
+    void neverStoresMarkupOfAStaleProductUnderItsNewVersion() {
+        Product stored = productRepository.save(new Product("Koala Sleep Sack", "Cotton sleep sack.",
+                ProductCategory.CLOTHING, new BigDecimal("24.00"), "/images/koala.jpg", 2));
+        // A request that read the product just before the write, e.g. from a cache not yet evicted.
+        Product stale = productRepository.findById(stored.getId()).orElseThrow();
+
+        Product changed = productRepository.findById(stored.getId()).orElseThrow();
+        changed.adjustStock(-2);
+        Product soldOut = productRepository.save(changed);
+
+        // The write's listeners have all run, but the stale instance renders first.
+        assertThat(fragments.detail(stale)).contains("In stock");
+        assertThat(fragments.detail(soldOut)).contains("Out of stock");
+        assertThat(fragments.detail(stale)).contains("In stock");
+
+        productRepository.delete(soldOut);
+    }
+}